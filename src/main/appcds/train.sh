@@ -0,0 +1,13 @@
+#!/bin/sh
+# AppCDS training run of the 'appcds' Maven profile, in the Jib base image with target/appcds mounted as /app:
+# the archive is only used by the JVM that dumped it, with the classpath it was dumped with.
+set -e
+
+cd /app/appcds
+# Jib sets the modification time of the files it adds to the image to 1 second after the epoch,
+# and the JVM checks it for each jar of the archive
+touch -d @1 /app/appcds/*.jar /app/libs/*.jar
+ls /app/appcds/*.jar /app/libs/*.jar | paste -sd : - > classpath.txt
+
+java -Xshare:off -XX:DumpLoadedClassList=classes.lst -cp "$(cat classpath.txt)" com.mycompany.myapp.RestApp --application.startup.training=true
+java -Xshare:dump -XX:SharedClassListFile=classes.lst -XX:SharedArchiveFile=app.jsa -cp "$(cat classpath.txt)"
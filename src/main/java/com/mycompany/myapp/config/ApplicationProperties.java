@@ -1,6 +1,12 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Rest.
@@ -9,4 +15,534 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link io.github.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+    private final Archive archive = new Archive();
+
+    private final Cache cache = new Cache();
+
+    private final Datagen datagen = new Datagen();
+
+    private final Liquibase liquibase = new Liquibase();
+
+    private final Mail mail = new Mail();
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    private final Security security = new Security();
+
+    private final Startup startup = new Startup();
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Datagen getDatagen() {
+        return datagen;
+    }
+
+    public Liquibase getLiquibase() {
+        return liquibase;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Startup getStartup() {
+        return startup;
+    }
+
+    /**
+     * Archival of cold orders, see {@link com.mycompany.myapp.service.OrderArchiveService}.
+     */
+    public static class Archive {
+        private boolean enabled = false;
+
+        private String cron = "0 30 2 * * ?";
+
+        /**
+         * Directory of the segment files, which must be on durable storage shared by all the instances.
+         */
+        private String directory = "archive";
+
+        private long hotOrders = 1_000_000;
+
+        private int ordersPerSegment = 100_000;
+
+        private int ordersPerBlock = 128;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getHotOrders() {
+            return hotOrders;
+        }
+
+        public void setHotOrders(long hotOrders) {
+            this.hotOrders = hotOrders;
+        }
+
+        public int getOrdersPerSegment() {
+            return ordersPerSegment;
+        }
+
+        public void setOrdersPerSegment(int ordersPerSegment) {
+            this.ordersPerSegment = ordersPerSegment;
+        }
+
+        public int getOrdersPerBlock() {
+            return ordersPerBlock;
+        }
+
+        public void setOrdersPerBlock(int ordersPerBlock) {
+            this.ordersPerBlock = ordersPerBlock;
+        }
+    }
+
+    /**
+     * Sizing of each cache region, see {@link CacheConfiguration}.
+     */
+    public static class Cache {
+        /**
+         * Regions by entity name, like {@code Order} or {@code Customer.orders}, or by cache name for the other caches.
+         */
+        private final Map<String, Region> regions = new HashMap<>();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        /**
+         * Unset values default to the {@code jhipster.cache.ehcache} ones.
+         */
+        public static class Region {
+            private Long heapEntries;
+
+            private DataSize offHeap;
+
+            private Duration timeToLive;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getOffHeap() {
+                return offHeap;
+            }
+
+            public void setOffHeap(DataSize offHeap) {
+                this.offHeap = offHeap;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+        }
+    }
+
+    /**
+     * Synthetic dataset, see {@link com.mycompany.myapp.service.DatasetGenerator}.
+     */
+    public static class Datagen {
+        private int customers = 10_000;
+
+        private long orders = 1_000_000;
+
+        private double zipfExponent = 1.0;
+
+        private long seed = 42;
+
+        private int workers = 4;
+
+        private int batchSize = 1_000;
+
+        private int chunkSize = 100_000;
+
+        private String locale = "en";
+
+        public int getCustomers() {
+            return customers;
+        }
+
+        public void setCustomers(int customers) {
+            this.customers = customers;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public void setOrders(long orders) {
+            this.orders = orders;
+        }
+
+        public double getZipfExponent() {
+            return zipfExponent;
+        }
+
+        public void setZipfExponent(double zipfExponent) {
+            this.zipfExponent = zipfExponent;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public String getLocale() {
+            return locale;
+        }
+
+        public void setLocale(String locale) {
+            this.locale = locale;
+        }
+    }
+
+    /**
+     * Startup migrations, see {@link LiquibaseConfiguration}.
+     */
+    public static class Liquibase {
+        private boolean skipWhenUnchanged = false;
+
+        public boolean isSkipWhenUnchanged() {
+            return skipWhenUnchanged;
+        }
+
+        public void setSkipWhenUnchanged(boolean skipWhenUnchanged) {
+            this.skipWhenUnchanged = skipWhenUnchanged;
+        }
+    }
+
+    /**
+     * Delivery of the emails, see {@link com.mycompany.myapp.service.MailDispatcher}.
+     */
+    public static class Mail {
+        private int connections = 2;
+
+        private int queueCapacity = 10_000;
+
+        private int batchSize = 50;
+
+        private int maxAttempts = 3;
+
+        private Duration retryBackoff = Duration.ofSeconds(1);
+
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public void setConnections(int connections) {
+            this.connections = connections;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+    }
+
+    /**
+     * Rate limiting of the requests, see {@link com.mycompany.myapp.security.RateLimitFilter}.
+     */
+    public static class RateLimit {
+        private boolean enabled = true;
+
+        private int capacity = 200;
+
+        private double refillPerSecond = 50;
+
+        private int maxKeys = 100_000;
+
+        /**
+         * Limits of the requests matching an Ant path, the first matching one is used.
+         */
+        private final List<Route> routes = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        public List<Route> getRoutes() {
+            return routes;
+        }
+
+        public static class Route {
+            private String path;
+
+            private int capacity;
+
+            private double refillPerSecond;
+
+            /**
+             * Capacity of the buckets of the logins submitted to the route, 0 for none.
+             */
+            private int loginCapacity;
+
+            private double loginRefillPerSecond;
+
+            public String getPath() {
+                return path;
+            }
+
+            public void setPath(String path) {
+                this.path = path;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public double getRefillPerSecond() {
+                return refillPerSecond;
+            }
+
+            public void setRefillPerSecond(double refillPerSecond) {
+                this.refillPerSecond = refillPerSecond;
+            }
+
+            public int getLoginCapacity() {
+                return loginCapacity;
+            }
+
+            public void setLoginCapacity(int loginCapacity) {
+                this.loginCapacity = loginCapacity;
+            }
+
+            public double getLoginRefillPerSecond() {
+                return loginRefillPerSecond;
+            }
+
+            public void setLoginRefillPerSecond(double loginRefillPerSecond) {
+                this.loginRefillPerSecond = loginRefillPerSecond;
+            }
+        }
+    }
+
+    /**
+     * Authentication, see {@link com.mycompany.myapp.security.jwt.TokenProvider},
+     * {@link com.mycompany.myapp.security.jwt.RevokedTokens} and {@link com.mycompany.myapp.security.PasswordVerificationExecutor}.
+     */
+    public static class Security {
+        private int tokenCacheSize = 10_000;
+
+        private int revokedTokenCapacity = 100_000;
+
+        private int passwordVerificationThreads = 0;
+
+        private int passwordVerificationQueue = 0;
+
+        private Duration passwordVerificationRetryAfter = Duration.ofSeconds(5);
+
+        private boolean profileClaims = false;
+
+        public int getTokenCacheSize() {
+            return tokenCacheSize;
+        }
+
+        public void setTokenCacheSize(int tokenCacheSize) {
+            this.tokenCacheSize = tokenCacheSize;
+        }
+
+        public int getRevokedTokenCapacity() {
+            return revokedTokenCapacity;
+        }
+
+        public void setRevokedTokenCapacity(int revokedTokenCapacity) {
+            this.revokedTokenCapacity = revokedTokenCapacity;
+        }
+
+        public int getPasswordVerificationThreads() {
+            return passwordVerificationThreads;
+        }
+
+        public void setPasswordVerificationThreads(int passwordVerificationThreads) {
+            this.passwordVerificationThreads = passwordVerificationThreads;
+        }
+
+        public int getPasswordVerificationQueue() {
+            return passwordVerificationQueue;
+        }
+
+        public void setPasswordVerificationQueue(int passwordVerificationQueue) {
+            this.passwordVerificationQueue = passwordVerificationQueue;
+        }
+
+        public Duration getPasswordVerificationRetryAfter() {
+            return passwordVerificationRetryAfter;
+        }
+
+        public void setPasswordVerificationRetryAfter(Duration passwordVerificationRetryAfter) {
+            this.passwordVerificationRetryAfter = passwordVerificationRetryAfter;
+        }
+
+        public boolean isProfileClaims() {
+            return profileClaims;
+        }
+
+        public void setProfileClaims(boolean profileClaims) {
+            this.profileClaims = profileClaims;
+        }
+    }
+
+    /**
+     * Startup mode, see {@link StartupConfiguration}.
+     */
+    public static class Startup {
+        private boolean training = false;
+
+        public boolean isTraining() {
+            return training;
+        }
+
+        public void setTraining(boolean training) {
+            this.training = training;
+        }
+    }
+}
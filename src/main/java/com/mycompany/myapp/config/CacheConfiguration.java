@@ -4,8 +4,11 @@ import io.github.jhipster.config.JHipsterProperties;
 import io.github.jhipster.config.cache.PrefixedKeyGenerator;
 import java.time.Duration;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.impl.serialization.CompactJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -18,20 +21,18 @@ import org.springframework.context.annotation.*;
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
+    private static final String DOMAIN_PACKAGE = "com.mycompany.myapp.domain.";
+
+    private static final ApplicationProperties.Cache.Region DEFAULT_REGION = new ApplicationProperties.Cache.Region();
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
-
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
     }
 
     @Bean
@@ -42,14 +43,20 @@ public class CacheConfiguration {
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
-            createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_LOGIN_CACHE);
-            createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.UserCache.USERS_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.UserCache.USER_IDS_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.UserCache.UNKNOWN_USERS_CACHE);
+            createCache(cm, com.mycompany.myapp.security.CachingAuthenticationProvider.VERIFIED_CREDENTIALS_CACHE);
+            createCache(cm, com.mycompany.myapp.service.UserService.ACCOUNT_PROFILES_CACHE);
             createCache(cm, com.mycompany.myapp.domain.User.class.getName());
             createCache(cm, com.mycompany.myapp.domain.Authority.class.getName());
             createCache(cm, com.mycompany.myapp.domain.User.class.getName() + ".authorities");
             createCache(cm, com.mycompany.myapp.domain.Customer.class.getName());
             createCache(cm, com.mycompany.myapp.domain.Customer.class.getName() + ".orders");
             createCache(cm, com.mycompany.myapp.domain.Order.class.getName());
+            createCache(cm, com.mycompany.myapp.repository.OrderRepository.ORDER_SUMMARIES_CACHE);
+            createCache(cm, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+            createCache(cm, com.mycompany.myapp.web.filter.OrderResponseCacheFilter.ORDER_RESPONSES_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -59,8 +66,44 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+        // Read by CacheMetrics
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * Entries of the regions with an off-heap tier are stored serialized: Hibernate caches the disassembled state of
+     * entities, which is serializable, and the compact serializer writes each class descriptor once per cache instead
+     * of once per entry.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        String regionName = cacheName.replace(DOMAIN_PACKAGE, "");
+        ApplicationProperties.Cache.Region region = cacheProperties.getRegions().getOrDefault(regionName, DEFAULT_REGION);
+        long heapEntries = region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries();
+        Duration timeToLive = region.getTimeToLive() != null
+            ? region.getTimeToLive()
+            : Duration.ofSeconds(ehcache.getTimeToLiveSeconds());
+
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(heapEntries);
+        if (region.getOffHeap() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeap().toMegabytes(), MemoryUnit.MB);
+        }
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+            .withExpiry(
+                // Cached query results are only checked against the last update of their tables while it is known
+                RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME.equals(cacheName)
+                    ? ExpiryPolicyBuilder.noExpiration()
+                    : ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive)
+            );
+        if (region.getOffHeap() != null) {
+            builder =
+                builder
+                    .withKeySerializer(CompactJavaSerializer.<Object>asTypedSerializer())
+                    .withValueSerializer(CompactJavaSerializer.<Object>asTypedSerializer());
         }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
     }
 
     @Autowired(required = false)
@@ -11,5 +11,14 @@ public final class Constants {
     public static final String DEFAULT_LANGUAGE = "en";
     public static final String ANONYMOUS_USER = "anonymoususer";
 
+    // Spring profile serving the order reads from ReactiveOrderResource, over R2DBC
+    public static final String SPRING_PROFILE_REACTIVE = "reactive";
+
+    // Spring profile running requests and async tasks on virtual threads, when the JDK has them
+    public static final String SPRING_PROFILE_VIRTUAL_THREADS = "virtual-threads";
+
+    // Spring profile filling the database with a synthetic dataset, then stopping the application
+    public static final String SPRING_PROFILE_DATAGEN = "datagen";
+
     private Constants() {}
 }
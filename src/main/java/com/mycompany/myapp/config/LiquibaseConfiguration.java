@@ -2,6 +2,13 @@ package com.mycompany.myapp.config;
 
 import io.github.jhipster.config.JHipsterConstants;
 import io.github.jhipster.config.liquibase.SpringLiquibaseUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Executor;
 import javax.sql.DataSource;
 import liquibase.integration.spring.SpringLiquibase;
@@ -16,15 +23,27 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 @Configuration
 public class LiquibaseConfiguration {
     private final Logger log = LoggerFactory.getLogger(LiquibaseConfiguration.class);
 
+    /**
+     * Checksum of the changelog directory, computed at build time by the maven-antrun-plugin.
+     */
+    private static final String CHANGELOG_CHECKSUM = "config/liquibase/checksum.txt";
+
     private final Environment env;
 
-    public LiquibaseConfiguration(Environment env) {
+    private final ApplicationProperties applicationProperties;
+
+    public LiquibaseConfiguration(Environment env, ApplicationProperties applicationProperties) {
         this.env = env;
+        this.applicationProperties = applicationProperties;
     }
 
     @Bean
@@ -37,14 +56,27 @@ public class LiquibaseConfiguration {
     ) {
         // If you don't want Liquibase to start asynchronously, substitute by this:
         // SpringLiquibase liquibase = SpringLiquibaseUtil.createSpringLiquibase(liquibaseDataSource.getIfAvailable(), liquibaseProperties, dataSource.getIfUnique(), dataSourceProperties);
-        SpringLiquibase liquibase = SpringLiquibaseUtil.createAsyncSpringLiquibase(
-            this.env,
-            executor,
-            liquibaseDataSource.getIfAvailable(),
-            liquibaseProperties,
-            dataSource.getIfUnique(),
-            dataSourceProperties
-        );
+        SpringLiquibase liquibase;
+        if (env.acceptsProfiles(Profiles.of(Constants.SPRING_PROFILE_DATAGEN))) {
+            // The dataset is generated once the application is ready, so the schema must be up to date by then
+            liquibase =
+                SpringLiquibaseUtil.createSpringLiquibase(
+                    liquibaseDataSource.getIfAvailable(),
+                    liquibaseProperties,
+                    dataSource.getIfUnique(),
+                    dataSourceProperties
+                );
+        } else {
+            liquibase =
+                SpringLiquibaseUtil.createAsyncSpringLiquibase(
+                    this.env,
+                    executor,
+                    liquibaseDataSource.getIfAvailable(),
+                    liquibaseProperties,
+                    dataSource.getIfUnique(),
+                    dataSourceProperties
+                );
+        }
         liquibase.setChangeLog("classpath:config/liquibase/master.xml");
         liquibase.setContexts(liquibaseProperties.getContexts());
         liquibase.setDefaultSchema(liquibaseProperties.getDefaultSchema());
@@ -54,15 +86,66 @@ public class LiquibaseConfiguration {
         liquibase.setDatabaseChangeLogTable(liquibaseProperties.getDatabaseChangeLogTable());
         liquibase.setDropFirst(liquibaseProperties.isDropFirst());
         liquibase.setLabels(liquibaseProperties.getLabels());
-        liquibase.setChangeLogParameters(liquibaseProperties.getParameters());
+        String checksum = readChangelogChecksum();
+        String contexts = Objects.toString(liquibaseProperties.getContexts(), "");
+        Map<String, String> changeLogParameters = new HashMap<>();
+        if (liquibaseProperties.getParameters() != null) {
+            changeLogParameters.putAll(liquibaseProperties.getParameters());
+        }
+        changeLogParameters.put("changelogChecksum", checksum);
+        changeLogParameters.put("changelogContexts", contexts);
+        liquibase.setChangeLogParameters(changeLogParameters);
         liquibase.setRollbackFile(liquibaseProperties.getRollbackFile());
         liquibase.setTestRollbackOnUpdate(liquibaseProperties.isTestRollbackOnUpdate());
         if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_NO_LIQUIBASE))) {
             liquibase.setShouldRun(false);
+        } else if (
+            liquibaseProperties.isEnabled() &&
+            applicationProperties.getLiquibase().isSkipWhenUnchanged() &&
+            isChangelogApplied(liquibase.getDataSource(), checksum, contexts)
+        ) {
+            log.info("Liquibase changelog {} is already applied, skipping Liquibase", checksum);
+            liquibase.setShouldRun(false);
         } else {
             liquibase.setShouldRun(liquibaseProperties.isEnabled());
             log.debug("Configuring Liquibase");
         }
         return liquibase;
     }
+
+    private String readChangelogChecksum() {
+        Resource resource = new ClassPathResource(CHANGELOG_CHECKSUM);
+        if (!resource.exists()) {
+            return "";
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            log.warn("Could not read the Liquibase changelog checksum", e);
+            return "";
+        }
+    }
+
+    /**
+     * Compare the checksum of the packaged changelog with the fingerprint recorded by its last changeset.
+     * <p>
+     * Any doubt (no checksum packaged, no fingerprint table yet, other contexts) means Liquibase must run.
+     */
+    boolean isChangelogApplied(DataSource dataSource, String checksum, String contexts) {
+        if (checksum.isEmpty() || dataSource == null) {
+            return false;
+        }
+        try {
+            List<Boolean> applied = new JdbcTemplate(dataSource)
+            .query(
+                    "select checksum, contexts from jhi_changelog_fingerprint where id = 1",
+                    (rs, rowNum) ->
+                        checksum.equals(rs.getString("checksum")) && contexts.equals(Objects.toString(rs.getString("contexts"), ""))
+                );
+            return applied.contains(Boolean.TRUE);
+        } catch (DataAccessException e) {
+            log.debug("No Liquibase changelog fingerprint: {}", e.getMessage());
+            return false;
+        }
+    }
 }
@@ -0,0 +1,56 @@
+package com.mycompany.myapp.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+
+/**
+ * R2DBC access to the database, next to the JPA one, for the {@link Constants#SPRING_PROFILE_REACTIVE} profile.
+ * <p>
+ * The R2DBC auto-configuration is excluded in {@code application.yml}: it would otherwise always create a connection
+ * factory and a second transaction manager, which {@code @Transactional} can't choose from. Reactive reads don't need
+ * transactions, so none is defined here.
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_REACTIVE)
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveDatabaseConfiguration {
+    private final Logger log = LoggerFactory.getLogger(ReactiveDatabaseConfiguration.class);
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(R2dbcProperties properties) {
+        log.debug("Configuring R2DBC connection pool for {}", properties.getUrl());
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (StringUtils.hasText(properties.getUsername())) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (StringUtils.hasText(properties.getPassword())) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        R2dbcProperties.Pool pool = properties.getPool();
+        return new ConnectionPool(
+            ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build()
+        );
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
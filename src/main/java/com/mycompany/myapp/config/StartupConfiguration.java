@@ -0,0 +1,55 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Arrays;
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Startup time: lazy initialization of non-critical beans, and the training run of the AppCDS archive.
+ */
+@Configuration
+public class StartupConfiguration {
+    private final Logger log = LoggerFactory.getLogger(StartupConfiguration.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    public StartupConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Beans that are created at startup even with {@code spring.main.lazy-initialization}: the database migration,
+     * the metrics, and the beans with scheduled tasks, which would otherwise never be scheduled.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return (beanName, beanDefinition, beanType) ->
+            beanType != null &&
+            (
+                SpringLiquibase.class.isAssignableFrom(beanType) ||
+                MeterBinder.class.isAssignableFrom(beanType) ||
+                Arrays
+                    .stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+                    .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class))
+            );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exitAfterTraining(ApplicationReadyEvent event) {
+        if (applicationProperties.getStartup().isTraining()) {
+            log.info("Training run done, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycompany.myapp.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+/**
+ * Access to the virtual threads of JDK 21 and later.
+ * <p>
+ * The application is compiled for Java 11, so the virtual thread API is called by reflection.
+ */
+public final class VirtualThreads {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {}
+
+    /**
+     * @return {@code true} if the running JDK has virtual threads.
+     */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param env the Spring environment.
+     * @return {@code true} if the {@link Constants#SPRING_PROFILE_VIRTUAL_THREADS} profile is active and the running JDK
+     * has virtual threads.
+     */
+    public static boolean isEnabled(Environment env) {
+        if (!env.acceptsProfiles(Profiles.of(Constants.SPRING_PROFILE_VIRTUAL_THREADS))) {
+            return false;
+        }
+        if (!isSupported()) {
+            log.warn(
+                "The '{}' profile is active but Java {} has no virtual threads, using platform threads",
+                Constants.SPRING_PROFILE_VIRTUAL_THREADS,
+                Runtime.version().feature()
+            );
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for each task.
+     *
+     * @param namePrefix the prefix of the thread names, followed by a counter.
+     * @return the executor.
+     * @throws IllegalStateException if the running JDK has no virtual threads.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not supported by Java " + Runtime.version().feature(), e);
+        }
+    }
+}
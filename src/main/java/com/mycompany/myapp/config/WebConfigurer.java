@@ -13,6 +13,8 @@ import java.util.*;
 import javax.servlet.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
 import org.springframework.boot.web.server.*;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
@@ -22,6 +24,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
 import org.springframework.http.MediaType;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -57,13 +60,33 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
     }
 
     /**
-     * Customize the Servlet engine: Mime types, the document root, the cache.
+     * Customize the Servlet engine: Mime types, the document root, the cache, the request threads.
      */
     @Override
     public void customize(WebServerFactory server) {
         setMimeMappings(server);
         // When running in an IDE or with ./mvnw spring-boot:run, set location of the static web assets.
         setLocationForStaticAssets(server);
+        if (VirtualThreads.isEnabled(env)) {
+            setVirtualThreadExecutor(server);
+        }
+    }
+
+    /**
+     * Run servlet requests on virtual threads instead of the bounded worker pool of the servlet engine.
+     */
+    private void setVirtualThreadExecutor(WebServerFactory server) {
+        if (ClassUtils.isPresent("io.undertow.Undertow", null) && server instanceof UndertowServletWebServerFactory) {
+            log.info("Handling requests on virtual threads");
+            ((UndertowServletWebServerFactory) server).addDeploymentInfoCustomizers(
+                    deploymentInfo -> deploymentInfo.setExecutor(VirtualThreads.newThreadPerTaskExecutor("undertow-virtual-"))
+                );
+        } else if (ClassUtils.isPresent("org.apache.catalina.startup.Tomcat", null) && server instanceof TomcatServletWebServerFactory) {
+            log.info("Handling requests on virtual threads");
+            ((TomcatServletWebServerFactory) server).addProtocolHandlerCustomizers(
+                    protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-virtual-"))
+                );
+        }
     }
 
     private void setMimeMappings(WebServerFactory server) {
@@ -1,11 +1,15 @@
 package com.mycompany.myapp.domain;
 
+import com.mycompany.myapp.repository.EntityChangeListener;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 import javax.persistence.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.Indexed;
 
 /**
  * A Customer.
@@ -13,6 +17,9 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "customer")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@Indexed
+@EntityListeners(EntityChangeListener.class)
 public class Customer implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -21,12 +28,17 @@ public class Customer implements Serializable {
     private Long id;
 
     @Column(name = "name")
+    @Field
     private String name;
 
     @OneToMany(mappedBy = "customer")
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Order> orders = new HashSet<>();
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -79,6 +91,19 @@ public class Customer implements Serializable {
         this.orders = orders;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Customer version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -103,6 +128,7 @@ public class Customer implements Serializable {
         return "Customer{" +
             "id=" + getId() +
             ", name='" + getName() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
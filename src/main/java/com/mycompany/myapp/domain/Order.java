@@ -1,10 +1,14 @@
 package com.mycompany.myapp.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.mycompany.myapp.repository.EntityChangeListener;
 import java.io.Serializable;
 import javax.persistence.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.Indexed;
 
 /**
  * A Order.
@@ -12,6 +16,9 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "jhi_order")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@Indexed
+@EntityListeners(EntityChangeListener.class)
 public class Order implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -20,6 +27,7 @@ public class Order implements Serializable {
     private Long id;
 
     @Column(name = "product")
+    @Field
     private String product;
 
     @Column(name = "cost")
@@ -29,6 +37,10 @@ public class Order implements Serializable {
     @JsonIgnoreProperties(value = "orders", allowSetters = true)
     private Customer customer;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -82,6 +94,19 @@ public class Order implements Serializable {
         this.customer = customer;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Order version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -107,6 +132,7 @@ public class Order implements Serializable {
             "id=" + getId() +
             ", product='" + getProduct() + "'" +
             ", cost=" + getCost() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,124 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * A JWT revoked before its expiration, identified by its SHA-256 digest.
+ */
+@Entity
+@Table(name = "jhi_revoked_token")
+public class RevokedToken implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Size(max = 44)
+    @Column(name = "digest", length = 44, nullable = false, unique = true)
+    private String digest;
+
+    @Size(max = 50)
+    @Column(name = "login", length = 50)
+    private String login;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @NotNull
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public RevokedToken digest(String digest) {
+        this.digest = digest;
+        return this;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public RevokedToken login(String login) {
+        this.login = login;
+        return this;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public RevokedToken expiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+        return this;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public RevokedToken revokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+        return this;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RevokedToken)) {
+            return false;
+        }
+        return id != null && id.equals(((RevokedToken) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+            "id=" + getId() +
+            ", login='" + getLogin() + "'" +
+            ", expiresAt='" + getExpiresAt() + "'" +
+            ", revokedAt='" + getRevokedAt() + "'" +
+            "}";
+    }
+}
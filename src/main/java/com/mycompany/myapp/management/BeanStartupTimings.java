@@ -0,0 +1,120 @@
+package com.mycompany.myapp.management;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records how long each bean takes to be created, until the application is ready.
+ * <p>
+ * Spring Boot 2.3 has no {@code ApplicationStartup} yet, so the steps are measured between instantiation and
+ * initialization of each bean. As beans create their dependencies, each step has its total duration and its self
+ * duration, without the beans it created; the slowest ones are logged once the application is ready, and all of them
+ * are available from {@link StartupEndpoint}.
+ */
+@Component
+public class BeanStartupTimings implements InstantiationAwareBeanPostProcessor, ApplicationListener<ApplicationReadyEvent> {
+    private static final int LOGGED_STEPS = 10;
+
+    private final Logger log = LoggerFactory.getLogger(BeanStartupTimings.class);
+
+    private final ThreadLocal<Deque<Step>> creations = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Queue<Step> steps = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean recording = true;
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        if (recording) {
+            creations.get().push(new Step(beanName, beanClass.getName(), System.nanoTime()));
+        }
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Deque<Step> current = creations.get();
+        if (current.isEmpty() || current.stream().noneMatch(step -> step.bean.equals(beanName))) {
+            // Not created by this thread, or the object of a FactoryBean
+            return bean;
+        }
+        Step step = current.pop();
+        while (!step.bean.equals(beanName)) {
+            // The creation of this bean failed
+            step = current.pop();
+        }
+        step.durationNanos = System.nanoTime() - step.startNanos;
+        if (!current.isEmpty()) {
+            current.peek().childrenNanos += step.durationNanos;
+        }
+        steps.add(step);
+        return bean;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        recording = false;
+        creations.remove();
+        log.info(
+            "Slowest beans to create: {}",
+            getSteps()
+                .stream()
+                .limit(LOGGED_STEPS)
+                .map(step -> String.format("%s (%d ms)", step.get("bean"), step.get("selfMs")))
+                .collect(Collectors.joining(", "))
+        );
+    }
+
+    /**
+     * Get the recorded steps, the slowest first.
+     *
+     * @return the bean name, type, total and self duration of each step.
+     */
+    public List<Map<String, Object>> getSteps() {
+        List<Step> sorted = new ArrayList<>(steps);
+        sorted.sort(Comparator.comparingLong(Step::getSelfNanos).reversed());
+        List<Map<String, Object>> result = new ArrayList<>(sorted.size());
+        for (Step step : sorted) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("bean", step.bean);
+            entry.put("type", step.type);
+            entry.put("durationMs", TimeUnit.NANOSECONDS.toMillis(step.durationNanos));
+            entry.put("selfMs", TimeUnit.NANOSECONDS.toMillis(step.getSelfNanos()));
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private static final class Step {
+        private final String bean;
+        private final String type;
+        private final long startNanos;
+        private long durationNanos;
+        private long childrenNanos;
+
+        private Step(String bean, String type, long startNanos) {
+            this.bean = bean;
+            this.type = type;
+            this.startNanos = startNanos;
+        }
+
+        private long getSelfNanos() {
+            return durationNanos - childrenNanos;
+        }
+    }
+}
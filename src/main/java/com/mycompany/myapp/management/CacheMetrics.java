@@ -0,0 +1,213 @@
+package com.mycompany.myapp.management;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.ehcache.core.spi.service.StatisticsService;
+import org.ehcache.core.statistics.TierStatistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports the statistics of every JCache region to Micrometer, Hibernate's entity and collection regions included.
+ * <p>
+ * Hits, misses, puts, evictions and removals are the JCache statistics, enabled for each cache by
+ * {@link com.mycompany.myapp.config.CacheConfiguration}, and so are the hit ratio and the average get, put and remove
+ * times. JCache has no size, so it is read from the Ehcache tier statistics: the lowest tier of a cache holds all its
+ * entries, whatever cleared or evicted them, while the tiers above it only keep copies of the most used ones.
+ * <p>
+ * This replaces Spring Boot's cache metrics, which only see the caches of the Spring cache manager.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+    private static final String[] STATISTICS = {
+        "CacheHits",
+        "CacheMisses",
+        "CacheHitPercentage",
+        "CachePuts",
+        "CacheEvictions",
+        "CacheRemovals",
+        "AverageGetTime",
+        "AveragePutTime",
+        "AverageRemoveTime"
+    };
+
+    private static final List<String> TIERS_LOWEST_FIRST = List.of("Clustered", "Disk", "OffHeap", "OnHeap");
+
+    private final CacheManager cacheManager;
+
+    private final StatisticsService statisticsService;
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public CacheMetrics(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        this.statisticsService = statisticsService(cacheManager);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache<Object, Object> cache = cacheManager.getCache(name);
+            JCacheMetrics.monitor(registry, cache);
+            Gauge
+                .builder("cache.size", this, metrics -> toDouble(metrics.size(name)))
+                .description("Number of entries in the cache")
+                .tag("cache", name)
+                .register(registry);
+            for (String tier : tierStatistics(name).keySet()) {
+                Gauge
+                    .builder("cache.tier.size", this, metrics -> metrics.tierStatistic(name, tier, TierStatistics::getMappings))
+                    .description("Number of entries in a tier of the cache")
+                    .tags("cache", name, "tier", tier)
+                    .register(registry);
+                Gauge
+                    .builder("cache.tier.occupied", this, metrics -> metrics.tierStatistic(name, tier, TierStatistics::getOccupiedByteSize))
+                    .description("Bytes used by the entries of a tier of the cache, if the tier is sized in bytes")
+                    .tags("cache", name, "tier", tier)
+                    .baseUnit("bytes")
+                    .register(registry);
+            }
+            Gauge
+                .builder("cache.gets.hit.ratio", this, metrics -> toDouble(metrics.statistic(name, "CacheHitPercentage")) / 100)
+                .description("Ratio of the gets which were hits")
+                .tag("cache", name)
+                .register(registry);
+            latency(registry, "cache.gets.latency", "Average get time", name, "AverageGetTime");
+            latency(registry, "cache.puts.latency", "Average put time", name, "AveragePutTime");
+            latency(registry, "cache.removals.latency", "Average remove time", name, "AverageRemoveTime");
+        }
+    }
+
+    /**
+     * Get the statistics of a cache.
+     *
+     * @param name the name of the cache.
+     * @return the statistics, or {@code null} if there is no such cache.
+     */
+    public Map<String, Object> getStatistics(String name) {
+        if (cacheManager.getCache(name) == null) {
+            return null;
+        }
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", size(name));
+        for (String statistic : STATISTICS) {
+            statistics.put(Character.toLowerCase(statistic.charAt(0)) + statistic.substring(1), statistic(name, statistic));
+        }
+        return statistics;
+    }
+
+    public Set<String> getCacheNames() {
+        Set<String> names = new TreeSet<>();
+        cacheManager.getCacheNames().forEach(names::add);
+        return names;
+    }
+
+    /**
+     * Remove all the entries of a cache.
+     *
+     * @param name the name of the cache.
+     * @return {@code false} if there is no such cache.
+     */
+    public boolean clear(String name) {
+        Cache<Object, Object> cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return false;
+        }
+        cache.clear();
+        return true;
+    }
+
+    /**
+     * Count the entries of a cache in its lowest tier.
+     */
+    private Long size(String name) {
+        Map<String, TierStatistics> tiers = tierStatistics(name);
+        for (String tier : TIERS_LOWEST_FIRST) {
+            if (tiers.containsKey(tier)) {
+                return tiers.get(tier).getMappings();
+            }
+        }
+        return null;
+    }
+
+    private Map<String, TierStatistics> tierStatistics(String name) {
+        try {
+            return statisticsService.getCacheStatistics(name).getTierStatistics();
+        } catch (IllegalArgumentException e) {
+            // The cache was removed
+            return Map.of();
+        }
+    }
+
+    /**
+     * Read a statistic of a tier, which is negative if the tier doesn't keep it.
+     */
+    private double tierStatistic(String name, String tier, ToLongFunction<TierStatistics> statistic) {
+        TierStatistics statistics = tierStatistics(name).get(tier);
+        long value = statistics != null ? statistic.applyAsLong(statistics) : -1;
+        return value >= 0 ? value : Double.NaN;
+    }
+
+    private void latency(MeterRegistry registry, String meterName, String description, String name, String statistic) {
+        TimeGauge
+            .builder(meterName, this, TimeUnit.MICROSECONDS, metrics -> toDouble(metrics.statistic(name, statistic)))
+            .description(description)
+            .tag("cache", name)
+            .register(registry);
+    }
+
+    /**
+     * Read a statistic from the JCache statistics MBean of a cache.
+     */
+    private Object statistic(String name, String statistic) {
+        try {
+            Set<ObjectName> objectNames = mBeanServer.queryNames(
+                new ObjectName("javax.cache:type=CacheStatistics,Cache=" + name + ",*"),
+                null
+            );
+            if (objectNames.isEmpty()) {
+                return null;
+            }
+            return mBeanServer.getAttribute(objectNames.iterator().next(), statistic);
+        } catch (JMException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Find the statistics service of the Ehcache manager behind a JCache manager, which the JCache API doesn't expose.
+     */
+    private static StatisticsService statisticsService(CacheManager cacheManager) {
+        for (Field field : cacheManager.getClass().getDeclaredFields()) {
+            if (StatisticsService.class.isAssignableFrom(field.getType())) {
+                try {
+                    field.setAccessible(true);
+                    return (StatisticsService) field.get(cacheManager);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    throw new IllegalStateException("Cannot read the Ehcache statistics of " + cacheManager.getClass().getName(), e);
+                }
+            }
+        }
+        throw new IllegalStateException(cacheManager.getClass().getName() + " is not an Ehcache cache manager");
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+}
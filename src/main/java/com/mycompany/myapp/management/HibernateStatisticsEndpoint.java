@@ -0,0 +1,53 @@
+package com.mycompany.myapp.management;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to switch Hibernate statistics on and off without restarting the application.
+ * <p>
+ * {@code GET /management/hibernatestatistics} returns the current state and the main counters,
+ * {@code POST /management/hibernatestatistics} with a body like {@code {"enabled": true}} changes it.
+ */
+@Component
+@Endpoint(id = "hibernatestatistics")
+public class HibernateStatisticsEndpoint {
+    private final Logger log = LoggerFactory.getLogger(HibernateStatisticsEndpoint.class);
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("startTime", statistics.getStartTime());
+        result.put("queryExecutionCount", statistics.getQueryExecutionCount());
+        result.put("queryExecutionMaxTime", statistics.getQueryExecutionMaxTime());
+        result.put("queryExecutionMaxTimeQueryString", statistics.getQueryExecutionMaxTimeQueryString());
+        result.put("secondLevelCacheHitCount", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMissCount", statistics.getSecondLevelCacheMissCount());
+        result.put("queryPlanCacheHitCount", statistics.getQueryPlanCacheHitCount());
+        result.put("queryPlanCacheMissCount", statistics.getQueryPlanCacheMissCount());
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> enable(boolean enabled) {
+        log.info("Hibernate statistics {}", enabled ? "enabled" : "disabled");
+        statistics.setStatisticsEnabled(enabled);
+        return statistics();
+    }
+}
@@ -0,0 +1,215 @@
+package com.mycompany.myapp.management;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports Hibernate {@link Statistics} to Micrometer.
+ * <p>
+ * Meters only read the counters Hibernate already maintains, so they cost nothing when statistics are disabled: they
+ * simply stop moving. Statistics can be switched on and off at runtime with the {@link HibernateStatisticsEndpoint}.
+ * <p>
+ * Queries are only known once they have been executed, so they are timed from periodic readings of their statistics.
+ * They are not tagged with their text, which varies with sorts, parameter lists or criteria and would give an unbounded
+ * number of timers, but with a name made of their entity and operation, like {@code Order.select}.
+ * <p>
+ * This replaces Spring Boot's Hibernate metrics, which are only bound if statistics are enabled at startup.
+ */
+@Component
+public class HibernateStatisticsMetrics implements MeterBinder {
+    private final Statistics statistics;
+
+    private static final Pattern QUERY_OPERATION = Pattern.compile("^\\s*(select|update|delete|insert)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern QUERY_ENTITY = Pattern.compile(
+        "\\b(?:from|update|into)\\s+(?:versioned\\s+)?([\\w.$]+)",
+        Pattern.CASE_INSENSITIVE
+    );
+
+    private final Map<String, QueryTotals> queryTotals = new ConcurrentHashMap<>();
+
+    private final Map<String, long[]> lastQueryReadings = new HashMap<>();
+
+    private MeterRegistry registry;
+
+    public HibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+
+        counter(registry, "hibernate.sessions.open", "Sessions opened", Statistics::getSessionOpenCount);
+        counter(registry, "hibernate.transactions", "Transactions completed", Statistics::getTransactionCount);
+        counter(registry, "hibernate.statements", "Statements prepared", Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.flushes", "Flushes executed", Statistics::getFlushCount);
+        counter(registry, "hibernate.optimistic.failures", "Optimistic lock failures", Statistics::getOptimisticFailureCount);
+
+        counter(registry, "hibernate.query.executions", "Queries executed", Statistics::getQueryExecutionCount);
+        Gauge
+            .builder("hibernate.query.executions.max", statistics, Statistics::getQueryExecutionMaxTime)
+            .description("Slowest query execution time")
+            .baseUnit("milliseconds")
+            .register(registry);
+        counter(registry, "hibernate.query.plan", "Query plan cache hits", Statistics::getQueryPlanCacheHitCount, "result", "hit");
+        counter(registry, "hibernate.query.plan", "Query plan cache misses", Statistics::getQueryPlanCacheMissCount, "result", "miss");
+        counter(registry, "hibernate.cache.query.requests", "Query cache hits", Statistics::getQueryCacheHitCount, "result", "hit");
+        counter(registry, "hibernate.cache.query.requests", "Query cache misses", Statistics::getQueryCacheMissCount, "result", "miss");
+        counter(registry, "hibernate.cache.query.puts", "Query cache puts", Statistics::getQueryCachePutCount);
+
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            regionCounter(registry, "hibernate.cache.region.requests", region, regionName, CacheRegionStatistics::getHitCount, "hit");
+            regionCounter(registry, "hibernate.cache.region.requests", region, regionName, CacheRegionStatistics::getMissCount, "miss");
+            regionCounter(registry, "hibernate.cache.region.puts", region, regionName, CacheRegionStatistics::getPutCount, null);
+        }
+
+        for (String entityName : statistics.getEntityNames()) {
+            EntityStatistics entity = statistics.getEntityStatistics(entityName);
+            entityCounter(registry, entity, entityName, EntityStatistics::getLoadCount, "load");
+            entityCounter(registry, entity, entityName, EntityStatistics::getFetchCount, "fetch");
+            entityCounter(registry, entity, entityName, EntityStatistics::getInsertCount, "insert");
+            entityCounter(registry, entity, entityName, EntityStatistics::getUpdateCount, "update");
+            entityCounter(registry, entity, entityName, EntityStatistics::getDeleteCount, "delete");
+        }
+
+        bindQueries();
+    }
+
+    /**
+     * Add the executions of every query since the last call to the timer of its name.
+     * <p>
+     * Hibernate keeps the statistics of at most {@code hibernate.statistics.query_max_size} queries, and forgets the
+     * older ones, so only the queries it still tracks are remembered here.
+     */
+    @Scheduled(fixedDelay = 10000)
+    public synchronized void bindQueries() {
+        if (registry == null || !statistics.isStatisticsEnabled()) {
+            return;
+        }
+        Set<String> queries = Set.of(statistics.getQueries());
+        lastQueryReadings.keySet().retainAll(queries);
+        for (String query : queries) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            long[] reading = { queryStatistics.getExecutionCount(), queryStatistics.getExecutionTotalTime() };
+            long[] last = lastQueryReadings.getOrDefault(query, new long[2]);
+            if (reading[0] < last[0]) {
+                // The statistics were cleared
+                last = new long[2];
+            }
+            if (reading[0] > last[0]) {
+                queryTotals.computeIfAbsent(queryName(query), this::registerQueryTimer).add(reading[0] - last[0], reading[1] - last[1]);
+            }
+            lastQueryReadings.put(query, reading);
+        }
+    }
+
+    private QueryTotals registerQueryTimer(String name) {
+        QueryTotals totals = new QueryTotals();
+        FunctionTimer
+            .builder("hibernate.query", totals, QueryTotals::getCount, QueryTotals::getTotalTime, TimeUnit.MILLISECONDS)
+            .description("Query executions")
+            .tag("query", name)
+            .register(registry);
+        return totals;
+    }
+
+    /**
+     * Name a query by its entity, or its table for native queries, and its operation.
+     *
+     * @param query the query, as kept by Hibernate statistics.
+     * @return the name of the query, like {@code Order.select}.
+     */
+    static String queryName(String query) {
+        Matcher operation = QUERY_OPERATION.matcher(query);
+        Matcher entity = QUERY_ENTITY.matcher(query);
+        if (!operation.find() || !entity.find()) {
+            return "other";
+        }
+        String entityName = entity.group(1);
+        return entityName.substring(entityName.lastIndexOf('.') + 1) + "." + operation.group(1).toLowerCase(Locale.ENGLISH);
+    }
+
+    private void counter(
+        MeterRegistry registry,
+        String name,
+        String description,
+        ToDoubleFunction<Statistics> function,
+        String... tags
+    ) {
+        FunctionCounter.builder(name, statistics, function).description(description).tags(tags).register(registry);
+    }
+
+    private void regionCounter(
+        MeterRegistry registry,
+        String name,
+        CacheRegionStatistics region,
+        String regionName,
+        ToDoubleFunction<CacheRegionStatistics> function,
+        String result
+    ) {
+        FunctionCounter.Builder<CacheRegionStatistics> builder = FunctionCounter
+            .builder(name, region, function)
+            .description("Second level cache region " + name.substring(name.lastIndexOf('.') + 1))
+            .tag("region", regionName);
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(registry);
+    }
+
+    private void entityCounter(
+        MeterRegistry registry,
+        EntityStatistics entity,
+        String entityName,
+        ToDoubleFunction<EntityStatistics> function,
+        String operation
+    ) {
+        FunctionCounter
+            .builder("hibernate.entities", entity, function)
+            .description("Entity operations")
+            .tag("entity", entityName)
+            .tag("operation", operation)
+            .register(registry);
+    }
+
+    private static final class QueryTotals {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalTime = new AtomicLong();
+
+        private void add(long executions, long time) {
+            count.addAndGet(executions);
+            totalTime.addAndGet(time);
+        }
+
+        private long getCount() {
+            return count.get();
+        }
+
+        private long getTotalTime() {
+            return totalTime.get();
+        }
+    }
+}
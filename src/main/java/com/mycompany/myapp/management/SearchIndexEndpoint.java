@@ -0,0 +1,26 @@
+package com.mycompany.myapp.management;
+
+import com.mycompany.myapp.service.SearchService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to rebuild the full-text search indexes.
+ * <p>
+ * {@code POST /management/searchindex} starts a mass indexing job in the background.
+ */
+@Component
+@Endpoint(id = "searchindex")
+public class SearchIndexEndpoint {
+    private final SearchService searchService;
+
+    public SearchIndexEndpoint(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @WriteOperation
+    public void reindex() {
+        searchService.reindex();
+    }
+}
@@ -0,0 +1,27 @@
+package com.mycompany.myapp.management;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint showing which beans cost the most at startup.
+ * <p>
+ * {@code GET /management/startup} returns the steps recorded by {@link BeanStartupTimings}, the slowest first.
+ */
+@Component
+@Endpoint(id = "startup")
+public class StartupEndpoint {
+    private final BeanStartupTimings beanStartupTimings;
+
+    public StartupEndpoint(BeanStartupTimings beanStartupTimings) {
+        this.beanStartupTimings = beanStartupTimings;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> steps() {
+        return beanStartupTimings.getSteps();
+    }
+}
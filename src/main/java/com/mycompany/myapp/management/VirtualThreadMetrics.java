@@ -0,0 +1,112 @@
+package com.mycompany.myapp.management;
+
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.config.VirtualThreads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports where virtual threads get pinned to their carrier thread, and where {@code synchronized} blocks are contended.
+ * <p>
+ * Both come from JDK Flight Recorder events, streamed in process: {@code jdk.VirtualThreadPinned} is tagged with the
+ * first application or library frame holding the carrier (a JDBC driver or the connection pool, typically) and
+ * {@code jdk.JavaMonitorEnter} with the class of the contended monitor. Event streaming is not available before JDK 14,
+ * so it is called by reflection, like the rest of {@link VirtualThreads}.
+ */
+@Component
+@Profile(Constants.SPRING_PROFILE_VIRTUAL_THREADS)
+public class VirtualThreadMetrics implements MeterBinder, DisposableBean {
+    private static final Duration THRESHOLD = Duration.ofMillis(20);
+
+    private static final int MAX_TAG_VALUES = 100;
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadMetrics.class);
+
+    private final Set<String> tagValues = ConcurrentHashMap.newKeySet();
+
+    private AutoCloseable recordingStream;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!VirtualThreads.isSupported()) {
+            return;
+        }
+        try {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+            Object stream = streamClass.getConstructor().newInstance();
+            for (String event : new String[] { "jdk.VirtualThreadPinned", "jdk.JavaMonitorEnter" }) {
+                Object settings = streamClass.getMethod("enable", String.class).invoke(stream, event);
+                settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, THRESHOLD);
+                settingsClass.getMethod("withStackTrace").invoke(settings);
+            }
+            Consumer<RecordedEvent> onPinned = event ->
+                Timer
+                    .builder("jvm.threads.virtual.pinned")
+                    .description("Time virtual threads were pinned to their carrier thread")
+                    .tag("frame", tagValue(pinningFrame(event)))
+                    .register(registry)
+                    .record(event.getDuration());
+            Consumer<RecordedEvent> onMonitorEnter = event -> {
+                RecordedClass monitorClass = event.getClass("monitorClass");
+                Timer
+                    .builder("jvm.threads.monitor.contended")
+                    .description("Time threads waited to enter a contended synchronized block")
+                    .tag("class", tagValue(monitorClass != null ? monitorClass.getName() : "unknown"))
+                    .register(registry)
+                    .record(event.getDuration());
+            };
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, "jdk.VirtualThreadPinned", onPinned);
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, "jdk.JavaMonitorEnter", onMonitorEnter);
+            streamClass.getMethod("startAsync").invoke(stream);
+            recordingStream = (AutoCloseable) stream;
+        } catch (ReflectiveOperationException e) {
+            log.warn("Could not stream virtual thread events, pinning won't be reported", e);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private static String pinningFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        return event
+            .getStackTrace()
+            .getFrames()
+            .stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+            .filter(name -> !name.startsWith("java.") && !name.startsWith("jdk.") && !name.startsWith("sun."))
+            .findFirst()
+            .orElse("unknown");
+    }
+
+    /**
+     * Bound the number of meters: once enough distinct values are seen, new ones are reported as {@code other}.
+     */
+    private String tagValue(String value) {
+        if (tagValues.contains(value) || (tagValues.size() < MAX_TAG_VALUES && tagValues.add(value))) {
+            return value;
+        }
+        return "other";
+    }
+}
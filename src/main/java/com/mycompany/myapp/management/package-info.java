@@ -0,0 +1,4 @@
+/**
+ * Application management: metrics and actuator endpoints.
+ */
+package com.mycompany.myapp.management;
@@ -0,0 +1,70 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+
+/**
+ * An {@link Order} moved out of the database by the archival job, as stored in the {@link OrderArchive}.
+ */
+public class ArchivedOrder implements OrderSummary {
+    private final Long id;
+
+    private final String product;
+
+    private final Double cost;
+
+    private final Long customerId;
+
+    private final Long version;
+
+    public ArchivedOrder(Long id, String product, Double cost, Long customerId, Long version) {
+        this.id = id;
+        this.product = product;
+        this.cost = cost;
+        this.customerId = customerId;
+        this.version = version;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getProduct() {
+        return product;
+    }
+
+    @Override
+    public Double getCost() {
+        return cost;
+    }
+
+    @Override
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return a detached order holding the archived values.
+     */
+    public Order toOrder() {
+        Customer customer = customerId != null ? new Customer().id(customerId) : null;
+        return new Order().id(id).product(product).cost(cost).version(version).customer(customer);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ArchivedOrder{" +
+            "id=" + getId() +
+            ", product='" + getProduct() + "'" +
+            ", cost=" + getCost() +
+            ", customerId=" + getCustomerId() +
+            "}";
+    }
+}
@@ -0,0 +1,28 @@
+package com.mycompany.myapp.repository;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener publishing an {@link EntityChangedEvent} for each entity written through the entity manager.
+ * <p>
+ * Hibernate creates it through the Spring bean container, so it is injected. Bulk updates and deletes don't go through
+ * the entity manager, so the callers of {@link OrderRepository#deleteArchived} and
+ * {@link OrderUpdateRepository#updateCostAndCustomer} publish the event themselves.
+ */
+public class EntityChangeListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EntityChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void entityChanged(Object entity) {
+        eventPublisher.publishEvent(new EntityChangedEvent(entity));
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Event published when entities of a type are inserted, updated or deleted.
+ * <p>
+ * It is published within the transaction of the write, if there is one: listeners interested in committed data use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}. It holds the written entity, unless it
+ * is published for a bulk write, which changes entities that aren't known.
+ */
+public class EntityChangedEvent {
+    private final Class<?> entityType;
+
+    private final Object entity;
+
+    public EntityChangedEvent(Class<?> entityType) {
+        this.entityType = entityType;
+        this.entity = null;
+    }
+
+    public EntityChangedEvent(Object entity) {
+        this.entityType = entity.getClass();
+        this.entity = entity;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Get the written entity.
+     *
+     * @return the entity, or {@code null} for a bulk write.
+     */
+    public Object getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChangedEvent{entityType=" + entityType.getName() + "}";
+    }
+}
@@ -0,0 +1,57 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Last modification time of the table of each entity type, to tell whether entities or lists of entities changed
+ * without reading them.
+ * <p>
+ * The stamps are kept in the {@code jhi_modification_stamp} table, so that all the instances share them. A stamp is
+ * bumped when entities are written, as seen by {@link EntityChangedEvent}, in the transaction writing them: it is
+ * committed or rolled back with them, and its row stays locked until then, which serializes the transactions writing
+ * the same entity type. Stamps are in milliseconds and each one is greater than the previous one, even within the same
+ * millisecond or when the clocks of the instances differ, so they can't be sent as HTTP dates as they are: see
+ * {@code ConditionalGet} in the web layer.
+ */
+@Component
+public class ModificationStamps {
+    private final JdbcTemplate jdbcTemplate;
+
+    public ModificationStamps(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        String entityType = event.getEntityType().getSimpleName();
+        long now = System.currentTimeMillis();
+        int updated = jdbcTemplate.update(
+            "update jhi_modification_stamp set stamp = greatest(stamp + 1, ?) where entity_type = ?",
+            now,
+            entityType
+        );
+        if (updated == 0) {
+            jdbcTemplate.update("insert into jhi_modification_stamp (entity_type, stamp) values (?, ?)", entityType, now);
+        }
+    }
+
+    /**
+     * Get the last modification time of the tables of some entity types.
+     *
+     * @param entityTypes the entity types.
+     * @return the last time any of them was written, in milliseconds, or {@code 0} if they never were.
+     */
+    public long getLastModified(Class<?>... entityTypes) {
+        String placeholders = String.join(", ", Collections.nCopies(entityTypes.length, "?"));
+        Long lastModified = jdbcTemplate.queryForObject(
+            "select max(stamp) from jhi_modification_stamp where entity_type in (" + placeholders + ")",
+            Long.class,
+            Arrays.stream(entityTypes).map(Class::getSimpleName).toArray()
+        );
+        return lastModified != null ? lastModified : 0;
+    }
+}
@@ -0,0 +1,690 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Append-only store of the orders moved out of the database by the archival job.
+ * <p>
+ * Each archival run writes immutable segment files holding a contiguous range of order ids, in id order.
+ * A segment is made of independently deflated blocks of {@code ordersPerBlock} orders followed by a sparse index
+ * (the first id and the file offset of each block) and the blocks holding the orders of each customer, so that a
+ * lookup by id only inflates a single block, and listings only the blocks they return orders from.
+ * <p>
+ * A segment is written and synced to disk before its orders are deleted from the database, but it is only read once
+ * {@link #refresh} lists it as committed, see {@link com.mycompany.myapp.service.OrderArchiveService}. The directory
+ * must be on durable storage shared by all the instances, which all read the segments written by any of them.
+ */
+@Repository
+public class OrderArchive {
+    /**
+     * Reason of the {@code 400 (Bad Request)} answered to listings sorted by anything else than the id, once orders are
+     * archived: the archive is only sorted by id, and sorting the archived orders on another column would read them all.
+     */
+    public static final String SORT_NOT_SUPPORTED = "Orders can only be sorted by id once some are archived";
+
+    private static final int MAGIC = 0x4f524432;
+
+    private static final String SEGMENT_PREFIX = "orders-";
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Logger log = LoggerFactory.getLogger(OrderArchive.class);
+
+    private final Path directory;
+
+    private final int ordersPerBlock;
+
+    private volatile List<Segment> segments = List.of();
+
+    public OrderArchive(ApplicationProperties applicationProperties) {
+        this.directory = Paths.get(applicationProperties.getArchive().getDirectory());
+        this.ordersPerBlock = applicationProperties.getArchive().getOrdersPerBlock();
+    }
+
+    @PreDestroy
+    public void close() {
+        segments.forEach(this::close);
+    }
+
+    /**
+     * Read the committed segments, opening the new ones.
+     *
+     * @param segmentFirstIds the first order ids of the committed segments.
+     * @return {@code true} if segments were opened or closed.
+     * @throws IOException if a segment can't be read, for instance because it was written by another instance to a
+     * directory which is not shared.
+     */
+    public synchronized boolean refresh(Collection<Long> segmentFirstIds) throws IOException {
+        Map<Long, Segment> current = new HashMap<>();
+        for (Segment segment : segments) {
+            current.put(segment.firstId, segment);
+        }
+        List<Segment> refreshed = new ArrayList<>();
+        List<Segment> opened = new ArrayList<>();
+        try {
+            for (Long firstId : segmentFirstIds) {
+                Segment segment = current.remove(firstId);
+                if (segment == null) {
+                    segment = Segment.open(segmentPath(firstId));
+                    opened.add(segment);
+                }
+                refreshed.add(segment);
+            }
+        } catch (IOException e) {
+            opened.forEach(this::close);
+            throw e;
+        }
+        refreshed.sort(Comparator.comparingLong(segment -> segment.firstId));
+        segments = List.copyOf(refreshed);
+        current.values().forEach(this::close);
+        if (opened.isEmpty() && current.isEmpty()) {
+            return false;
+        }
+        log.info("Opened {} order archive segments in {}, {} archived orders", opened.size(), directory, count());
+        return true;
+    }
+
+    /**
+     * Writes the orders to a new segment, synced to disk, which is only read once it is committed.
+     *
+     * @param orders the orders to archive, sorted by id, all greater than {@link #getMaxId()}.
+     * @return the first order id of the segment.
+     */
+    public synchronized long write(List<ArchivedOrder> orders) {
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("No orders to archive");
+        }
+        if (orders.get(0).getId() <= getMaxId()) {
+            throw new IllegalArgumentException("Order " + orders.get(0).getId() + " is already archived");
+        }
+        try {
+            Files.createDirectories(directory);
+            Segment.write(directory, segmentPath(orders.get(0).getId()), orders, ordersPerBlock);
+            return orders.get(0).getId();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete a segment which was not committed.
+     *
+     * @param firstId the first order id of the segment.
+     */
+    public synchronized void delete(long firstId) {
+        if (segments.stream().anyMatch(segment -> segment.firstId == firstId)) {
+            throw new IllegalStateException("Archive segment " + firstId + " is committed");
+        }
+        try {
+            Files.deleteIfExists(segmentPath(firstId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete the segments left by an archival which did not commit, and the files of the segments it was writing.
+     *
+     * @param segmentFirstIds the first order ids of the committed segments, as read from the database by the archival
+     * holding the lock.
+     */
+    public synchronized void deleteUncommitted(Collection<Long> segmentFirstIds) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Set<Path> committed = segmentFirstIds.stream().map(this::segmentPath).collect(Collectors.toSet());
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path path : paths) {
+                if (!committed.contains(path)) {
+                    log.warn("Deleting the uncommitted archive segment {}", path);
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the greatest archived order id, or {@code 0} if the archive is empty.
+     */
+    public long getMaxId() {
+        List<Segment> current = segments;
+        return current.isEmpty() ? 0 : current.get(current.size() - 1).lastId;
+    }
+
+    public long count() {
+        return segments.stream().mapToLong(segment -> segment.count).sum();
+    }
+
+    public long countByCustomerId(Long customerId) {
+        return segments.stream().mapToLong(segment -> segment.countByCustomerId(customerId)).sum();
+    }
+
+    public Optional<ArchivedOrder> findById(Long id) {
+        List<Segment> current = segments;
+        int low = 0;
+        int high = current.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Segment segment = current.get(middle);
+            if (id < segment.firstId) {
+                high = middle - 1;
+            } else if (id > segment.lastId) {
+                low = middle + 1;
+            } else {
+                return segment.readBlock(segment.blockOf(id)).stream().filter(order -> order.getId().equals(id)).findFirst();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param offset the number of archived orders to skip, in id order.
+     * @param limit  the maximum number of orders to return.
+     * @return the archived orders.
+     */
+    public List<ArchivedOrder> findAll(long offset, int limit) {
+        List<ArchivedOrder> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (offset >= segment.count) {
+                offset -= segment.count;
+                continue;
+            }
+            int block = segment.blockAt(offset);
+            long skip = offset - segment.blockStarts[block];
+            for (; block < segment.blockCount() && result.size() < limit; block++) {
+                for (ArchivedOrder order : segment.readBlock(block)) {
+                    if (skip > 0) {
+                        skip--;
+                    } else if (result.size() < limit) {
+                        result.add(order);
+                    }
+                }
+            }
+            offset = 0;
+        }
+        return result;
+    }
+
+    /**
+     * @param customerId the id of the customer.
+     * @param offset     the number of archived orders of the customer to skip, in id order.
+     * @param limit      the maximum number of orders to return.
+     * @return the archived orders of the customer.
+     */
+    public List<ArchivedOrder> findAllByCustomerId(Long customerId, long offset, int limit) {
+        List<ArchivedOrder> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            CustomerBlocks customerBlocks = segment.blocksByCustomer.get(customerId);
+            if (customerBlocks == null) {
+                continue;
+            }
+            for (int i = 0; i < customerBlocks.blocks.length && result.size() < limit; i++) {
+                if (offset >= customerBlocks.counts[i]) {
+                    offset -= customerBlocks.counts[i];
+                    continue;
+                }
+                for (ArchivedOrder order : segment.readBlock(customerBlocks.blocks[i])) {
+                    if (!customerId.equals(order.getCustomerId())) {
+                        continue;
+                    }
+                    if (offset > 0) {
+                        offset--;
+                    } else if (result.size() < limit) {
+                        result.add(order);
+                    }
+                }
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether listings including archived orders can be sorted this way: archived orders are only sorted by id.
+     *
+     * @param sort the sort of the listing.
+     * @return {@code true} if the listing is unsorted, or only sorted by id.
+     */
+    public static boolean isSortSupported(Sort sort) {
+        return sort.isUnsorted() || (sort.stream().count() == 1 && sort.getOrderFor("id") != null);
+    }
+
+    /**
+     * Get a page of the orders, from the database and from the archive.
+     * <p>
+     * Archived orders have lower ids than the orders in the database, so they come first when sorted by ascending id,
+     * and last otherwise.
+     *
+     * @param pageable the pagination information, only sorted by id, see {@link #isSortSupported}.
+     * @param database reads a page of the orders from the database.
+     * @return the page of orders.
+     */
+    public Page<OrderSummary> findAll(Pageable pageable, Function<Pageable, Page<OrderSummary>> database) {
+        return findAll(pageable, database, count(), this::findAll);
+    }
+
+    /**
+     * Get a page of the orders of a customer, from the database and from the archive.
+     *
+     * @param customerId the id of the customer.
+     * @param pageable   the pagination information, only sorted by id, see {@link #isSortSupported}.
+     * @param database   reads a page of the orders of the customer from the database.
+     * @return the page of orders of the customer.
+     * @see #findAll(Pageable, Function)
+     */
+    public Page<OrderSummary> findAllByCustomerId(Long customerId, Pageable pageable, Function<Pageable, Page<OrderSummary>> database) {
+        return findAll(
+            pageable,
+            database,
+            countByCustomerId(customerId),
+            (offset, limit) -> findAllByCustomerId(customerId, offset, limit)
+        );
+    }
+
+    private static Page<OrderSummary> findAll(
+        Pageable pageable,
+        Function<Pageable, Page<OrderSummary>> database,
+        long archivedTotal,
+        BiFunction<Long, Integer, List<ArchivedOrder>> archivedOrders
+    ) {
+        if (archivedTotal == 0) {
+            return database.apply(pageable);
+        }
+        if (!isSortSupported(pageable.getSort())) {
+            throw new IllegalArgumentException(SORT_NOT_SUPPORTED);
+        }
+        if (pageable.isUnpaged()) {
+            List<OrderSummary> content = new ArrayList<>(database.apply(pageable).getContent());
+            content.addAll(archivedOrders.apply(0L, (int) Math.min(archivedTotal, Integer.MAX_VALUE)));
+            return new PageImpl<>(content);
+        }
+        Sort.Order idOrder = pageable.getSort().getOrderFor("id");
+        int pageSize = pageable.getPageSize();
+        long offset = pageable.getOffset();
+        List<OrderSummary> content = new ArrayList<>(pageSize);
+        long databaseTotal;
+        if (idOrder != null && idOrder.isAscending()) {
+            if (offset < archivedTotal) {
+                content.addAll(archivedOrders.apply(offset, (int) Math.min(pageSize, archivedTotal - offset)));
+            }
+            // The database pages are aligned on the requested page size, not on the archived orders
+            long databaseOffset = Math.max(0, offset - archivedTotal);
+            int skip = (int) (databaseOffset % pageSize);
+            int missing = pageSize - content.size();
+            Page<OrderSummary> page = database.apply(PageRequest.of((int) (databaseOffset / pageSize), pageSize, pageable.getSort()));
+            databaseTotal = page.getTotalElements();
+            List<OrderSummary> rows = new ArrayList<>(page.getContent());
+            if (skip + missing > rows.size() && page.hasNext()) {
+                rows.addAll(database.apply(page.nextPageable()).getContent());
+            }
+            rows.stream().skip(skip).limit(missing).forEach(content::add);
+        } else {
+            Page<OrderSummary> page = database.apply(pageable);
+            databaseTotal = page.getTotalElements();
+            content.addAll(page.getContent());
+            int missing = pageSize - content.size();
+            if (missing > 0) {
+                long archivedOffset = Math.max(0, offset - databaseTotal);
+                if (idOrder == null) {
+                    content.addAll(archivedOrders.apply(archivedOffset, missing));
+                } else if (archivedOffset < archivedTotal) {
+                    // Read backwards from the end of the archive
+                    int limit = (int) Math.min(missing, archivedTotal - archivedOffset);
+                    List<ArchivedOrder> archived = new ArrayList<>(archivedOrders.apply(archivedTotal - archivedOffset - limit, limit));
+                    Collections.reverse(archived);
+                    content.addAll(archived);
+                }
+            }
+        }
+        return new PageImpl<>(content, pageable, databaseTotal + archivedTotal);
+    }
+
+    private Path segmentPath(long firstId) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, firstId, SEGMENT_SUFFIX));
+    }
+
+    private void close(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close archive segment {}", segment.path, e);
+        }
+    }
+
+    /**
+     * The blocks holding orders of a customer, with the number of its orders in each of them.
+     */
+    private static final class CustomerBlocks {
+        private final int[] blocks;
+
+        private final int[] counts;
+
+        private final int total;
+
+        private CustomerBlocks(int[] blocks, int[] counts) {
+            this.blocks = blocks;
+            this.counts = counts;
+            this.total = Arrays.stream(counts).sum();
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private final long firstId;
+
+        private final long lastId;
+
+        private final long count;
+
+        private final long[] blockFirstIds;
+
+        private final long[] blockOffsets;
+
+        private final int[] blockLengths;
+
+        private final int[] blockRawLengths;
+
+        private final int[] blockCounts;
+
+        private final long[] blockStarts;
+
+        private final Map<Long, CustomerBlocks> blocksByCustomer;
+
+        private Segment(
+            Path path,
+            FileChannel channel,
+            long lastId,
+            long[] blockFirstIds,
+            long[] blockOffsets,
+            int[] blockLengths,
+            int[] blockRawLengths,
+            int[] blockCounts,
+            Map<Long, CustomerBlocks> blocksByCustomer
+        ) {
+            this.path = path;
+            this.channel = channel;
+            this.firstId = blockFirstIds[0];
+            this.lastId = lastId;
+            this.blockFirstIds = blockFirstIds;
+            this.blockOffsets = blockOffsets;
+            this.blockLengths = blockLengths;
+            this.blockRawLengths = blockRawLengths;
+            this.blockCounts = blockCounts;
+            this.blocksByCustomer = blocksByCustomer;
+            this.blockStarts = new long[blockCounts.length];
+            long start = 0;
+            for (int i = 0; i < blockCounts.length; i++) {
+                blockStarts[i] = start;
+                start += blockCounts[i];
+            }
+            this.count = start;
+        }
+
+        int blockCount() {
+            return blockFirstIds.length;
+        }
+
+        long countByCustomerId(Long customerId) {
+            CustomerBlocks customerBlocks = blocksByCustomer.get(customerId);
+            return customerBlocks != null ? customerBlocks.total : 0;
+        }
+
+        int blockOf(long id) {
+            int block = Arrays.binarySearch(blockFirstIds, id);
+            return block >= 0 ? block : -block - 2;
+        }
+
+        int blockAt(long offset) {
+            int block = Arrays.binarySearch(blockStarts, offset);
+            return block >= 0 ? block : -block - 2;
+        }
+
+        List<ArchivedOrder> readBlock(int block) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(read(channel, blockOffsets[block], blockLengths[block]).array());
+                byte[] raw = new byte[blockRawLengths[block]];
+                inflater.inflate(raw);
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+                List<ArchivedOrder> orders = new ArrayList<>(blockCounts[block]);
+                for (int i = 0; i < blockCounts[block]; i++) {
+                    long id = in.readLong();
+                    String product = in.readBoolean() ? in.readUTF() : null;
+                    Double cost = in.readBoolean() ? in.readDouble() : null;
+                    Long customerId = in.readBoolean() ? in.readLong() : null;
+                    Long version = in.readLong();
+                    orders.add(new ArchivedOrder(id, product, cost, customerId, version));
+                }
+                return orders;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupted archive segment " + path, e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        static void write(Path directory, Path segment, List<ArchivedOrder> orders, int ordersPerBlock) throws IOException {
+            int blockCount = (orders.size() + ordersPerBlock - 1) / ordersPerBlock;
+            long[] blockFirstIds = new long[blockCount];
+            long[] blockOffsets = new long[blockCount];
+            int[] blockLengths = new int[blockCount];
+            int[] blockRawLengths = new int[blockCount];
+            int[] blockCounts = new int[blockCount];
+            Map<Long, Map<Integer, Integer>> blocksByCustomer = new HashMap<>();
+
+            Path temporary = Files.createTempFile(directory, SEGMENT_PREFIX, ".tmp");
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+                out.writeInt(MAGIC);
+                Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+                try {
+                    for (int block = 0; block < blockCount; block++) {
+                        List<ArchivedOrder> blockOrders = orders.subList(
+                            block * ordersPerBlock,
+                            Math.min(orders.size(), (block + 1) * ordersPerBlock)
+                        );
+                        byte[] raw = encode(blockOrders, block, blocksByCustomer);
+                        deflater.reset();
+                        deflater.setInput(raw);
+                        deflater.finish();
+                        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2);
+                        byte[] buffer = new byte[8192];
+                        while (!deflater.finished()) {
+                            compressed.write(buffer, 0, deflater.deflate(buffer));
+                        }
+                        blockFirstIds[block] = blockOrders.get(0).getId();
+                        blockOffsets[block] = out.size();
+                        blockLengths[block] = compressed.size();
+                        blockRawLengths[block] = raw.length;
+                        blockCounts[block] = blockOrders.size();
+                        compressed.writeTo(out);
+                    }
+                } finally {
+                    deflater.end();
+                }
+                long indexOffset = out.size();
+                out.writeLong(orders.get(orders.size() - 1).getId());
+                out.writeInt(blockCount);
+                for (int block = 0; block < blockCount; block++) {
+                    out.writeLong(blockFirstIds[block]);
+                    out.writeLong(blockOffsets[block]);
+                    out.writeInt(blockLengths[block]);
+                    out.writeInt(blockRawLengths[block]);
+                    out.writeInt(blockCounts[block]);
+                }
+                out.writeInt(blocksByCustomer.size());
+                for (Map.Entry<Long, Map<Integer, Integer>> entry : blocksByCustomer.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (Map.Entry<Integer, Integer> customerBlock : entry.getValue().entrySet()) {
+                        out.writeInt(customerBlock.getKey());
+                        out.writeInt(customerBlock.getValue());
+                    }
+                }
+                out.writeLong(indexOffset);
+                out.writeInt(MAGIC);
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temporary, segment, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(directory);
+        }
+
+        /**
+         * Sync the directory entry of a renamed file. Directories can't be opened on every platform, and those where
+         * they can't don't need it.
+         */
+        private static void syncDirectory(Path directory) {
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException e) {
+                LoggerFactory.getLogger(OrderArchive.class).debug("Could not sync the archive directory: {}", e.getMessage());
+            }
+        }
+
+        private static byte[] encode(List<ArchivedOrder> orders, int block, Map<Long, Map<Integer, Integer>> blocksByCustomer)
+            throws IOException {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(raw);
+            for (ArchivedOrder order : orders) {
+                out.writeLong(order.getId());
+                out.writeBoolean(order.getProduct() != null);
+                if (order.getProduct() != null) {
+                    out.writeUTF(order.getProduct());
+                }
+                out.writeBoolean(order.getCost() != null);
+                if (order.getCost() != null) {
+                    out.writeDouble(order.getCost());
+                }
+                out.writeBoolean(order.getCustomerId() != null);
+                if (order.getCustomerId() != null) {
+                    out.writeLong(order.getCustomerId());
+                    blocksByCustomer
+                        .computeIfAbsent(order.getCustomerId(), customerId -> new LinkedHashMap<>())
+                        .merge(block, 1, Integer::sum);
+                }
+                out.writeLong(order.getVersion() != null ? order.getVersion() : 0);
+            }
+            out.flush();
+            return raw.toByteArray();
+        }
+
+        static Segment open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                ByteBuffer trailer = read(channel, size - Long.BYTES - Integer.BYTES, Long.BYTES + Integer.BYTES);
+                long indexOffset = trailer.getLong();
+                if (trailer.getInt() != MAGIC) {
+                    throw new IOException("Invalid archive segment " + path);
+                }
+                ByteBuffer index = read(channel, indexOffset, (int) (size - Long.BYTES - Integer.BYTES - indexOffset));
+                long lastId = index.getLong();
+                int blockCount = index.getInt();
+                long[] blockFirstIds = new long[blockCount];
+                long[] blockOffsets = new long[blockCount];
+                int[] blockLengths = new int[blockCount];
+                int[] blockRawLengths = new int[blockCount];
+                int[] blockCounts = new int[blockCount];
+                for (int block = 0; block < blockCount; block++) {
+                    blockFirstIds[block] = index.getLong();
+                    blockOffsets[block] = index.getLong();
+                    blockLengths[block] = index.getInt();
+                    blockRawLengths[block] = index.getInt();
+                    blockCounts[block] = index.getInt();
+                }
+                int customerCount = index.getInt();
+                Map<Long, CustomerBlocks> blocksByCustomer = new HashMap<>(customerCount * 2);
+                for (int i = 0; i < customerCount; i++) {
+                    long customerId = index.getLong();
+                    int[] customerBlocks = new int[index.getInt()];
+                    int[] customerCounts = new int[customerBlocks.length];
+                    for (int j = 0; j < customerBlocks.length; j++) {
+                        customerBlocks[j] = index.getInt();
+                        customerCounts[j] = index.getInt();
+                    }
+                    blocksByCustomer.put(customerId, new CustomerBlocks(customerBlocks, customerCounts));
+                }
+                return new Segment(
+                    path,
+                    channel,
+                    lastId,
+                    blockFirstIds,
+                    blockOffsets,
+                    blockLengths,
+                    blockRawLengths,
+                    blockCounts,
+                    Map.copyOf(blocksByCustomer)
+                );
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of archive segment");
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
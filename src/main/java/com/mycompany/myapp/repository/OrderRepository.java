@@ -1,17 +1,80 @@
 package com.mycompany.myapp.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 import com.mycompany.myapp.domain.Order;
+import java.util.Collection;
 import java.util.List;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Spring Data  repository for the Order entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderUpdateRepository {
+    /**
+     * Query cache region of the order pages, invalidated by Hibernate whenever the order table is written to.
+     */
+    String ORDER_SUMMARIES_CACHE = "orderSummaries";
+
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = ORDER_SUMMARIES_CACHE) })
     Page<Order> findAllByCustomerId(Long customerId, Pageable pageable);
+
+    @Query(
+        value = "select o.id as id, o.product as product, o.cost as cost, o.customer.id as customerId from Order o",
+        countQuery = "select count(o) from Order o"
+    )
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = ORDER_SUMMARIES_CACHE) })
+    Page<OrderSummary> findAllSummaries(Pageable pageable);
+
+    @Query(
+        value = "select o.id as id, o.product as product, o.cost as cost, o.customer.id as customerId from Order o " +
+        "where o.customer.id = :customerId",
+        countQuery = "select count(o) from Order o where o.customer.id = :customerId"
+    )
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = ORDER_SUMMARIES_CACHE) })
+    Page<OrderSummary> findAllSummariesByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    @Query("select o.id as id, o.product as product, o.cost as cost, o.customer.id as customerId from Order o where o.id in :ids")
+    List<OrderSummary> findAllSummariesByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("select o.id from Order o where o.customer.id = :customerId")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("select max(o.id) from Order o")
+    Long findMaxId();
+
+    /**
+     * Get the orders to archive, in id order.
+     *
+     * @param fromId the id after which to start, usually {@link OrderArchive#getMaxId()}.
+     * @param toId the greatest id to archive.
+     * @param pageable the maximum number of orders to return.
+     * @return the orders to archive.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.ArchivedOrder(o.id, o.product, o.cost, o.customer.id, o.version) from Order o " +
+        "where o.id > :fromId and o.id <= :toId order by o.id"
+    )
+    List<ArchivedOrder> findArchivable(@Param("fromId") Long fromId, @Param("toId") Long toId, Pageable pageable);
+
+    /**
+     * Delete orders which have been written to the {@link OrderArchive}, unless they were updated since.
+     *
+     * @param ids the ids of the archived orders.
+     * @param version the version the orders had when they were archived.
+     * @return the number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Order o where o.id in :ids and o.version = :version")
+    int deleteArchived(@Param("ids") Collection<Long> ids, @Param("version") Long version);
 }
@@ -0,0 +1,17 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Read-only projection of {@link com.mycompany.myapp.domain.Order} used by the order listings.
+ * <p>
+ * Rows are fetched as scalar tuples, so listing a page doesn't hydrate managed entities, their
+ * {@link com.mycompany.myapp.domain.Customer} association nor the second-level cache.
+ */
+public interface OrderSummary {
+    Long getId();
+
+    String getProduct();
+
+    Double getCost();
+
+    Long getCustomerId();
+}
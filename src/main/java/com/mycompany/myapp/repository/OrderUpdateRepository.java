@@ -0,0 +1,22 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Updates of orders which don't read them first, mixed into {@link OrderRepository}.
+ */
+public interface OrderUpdateRepository {
+    /**
+     * Update the cost and customer of an order without reading it, leaving its product untouched.
+     * <p>
+     * Only the second-level cache entries of the order, and the {@code Customer.orders} collections it belongs to, are
+     * evicted. The persistence context is flushed and cleared, like {@code @Modifying(clearAutomatically = true)}, so
+     * the order read afterwards is the updated one.
+     *
+     * @param id the id of the order.
+     * @param cost the new cost.
+     * @param customerId the id of the new customer, or {@code null} for none.
+     * @param version the expected version of the order, or {@code null} to update whatever its version.
+     * @return the number of updated rows, {@code 0} if the order doesn't exist or its version changed.
+     * @throws org.springframework.dao.DataIntegrityViolationException if the customer doesn't exist.
+     */
+    int updateCostAndCustomer(Long id, Double cost, Long customerId, Long version);
+}
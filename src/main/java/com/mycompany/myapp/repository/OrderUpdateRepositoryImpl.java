@@ -0,0 +1,95 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.DoubleType;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Native updates of orders, declaring no query space to Hibernate, which would otherwise evict all the orders and all
+ * the {@code Customer.orders} collections from the second-level cache: the entries they change are evicted here, when
+ * the statement runs and again once the transaction completes, and the {@link OrderRepository#ORDER_SUMMARIES_CACHE}
+ * pages are invalidated. The {@link EntityChangedEvent} of the order is published, as no entity listener sees it.
+ * <p>
+ * The customer of an order is not read: the update first assumes it is unchanged, which only makes the order stale in
+ * the cache. When it changed, a second update sets it, and the {@code Customer.orders} region is evicted as a whole, as
+ * the former customer isn't known.
+ */
+public class OrderUpdateRepositoryImpl implements OrderUpdateRepository {
+    private static final String CUSTOMER_ORDERS = Customer.class.getName() + ".orders";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrderUpdateRepositoryImpl(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public int updateCostAndCustomer(Long id, Double cost, Long customerId, Long version) {
+        entityManager.flush();
+        String set = "update jhi_order set cost = :cost, version = version + 1";
+        String where = " where id = :id" + (version != null ? " and version = :version" : "");
+        String sameCustomer = customerId != null ? " and customer_id = :customerId" : " and customer_id is null";
+        boolean customerChanged = false;
+        int updated = execute(set + where + sameCustomer, id, cost, customerId, version);
+        if (updated == 0) {
+            String setCustomer = ", customer_id = " + (customerId != null ? ":customerId" : "null");
+            updated = execute(set + setCustomer + where, id, cost, customerId, version);
+            customerChanged = updated > 0;
+        }
+        entityManager.clear();
+        if (updated > 0) {
+            evict(id, customerChanged);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                boolean evictCustomers = customerChanged;
+                TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            evict(id, evictCustomers);
+                        }
+                    }
+                );
+            }
+            eventPublisher.publishEvent(new EntityChangedEvent(new Order().id(id)));
+        }
+        return updated;
+    }
+
+    private int execute(String sql, Long id, Double cost, Long customerId, Long version) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        // No table is declared, so that Hibernate doesn't evict whole regions
+        query.addSynchronizedQuerySpace("");
+        // Typed, as a null can't be bound without its type
+        query.setParameter("id", id).setParameter("cost", new TypedParameterValue(DoubleType.INSTANCE, cost));
+        if (customerId != null) {
+            query.setParameter("customerId", customerId);
+        }
+        if (version != null) {
+            query.setParameter("version", version);
+        }
+        return query.executeUpdate();
+    }
+
+    private void evict(Long id, boolean customerChanged) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Order.class, id);
+        if (customerChanged) {
+            cache.evictCollectionData(CUSTOMER_ORDERS);
+        }
+        cache.evictQueryRegion(OrderRepository.ORDER_SUMMARIES_CACHE);
+    }
+}
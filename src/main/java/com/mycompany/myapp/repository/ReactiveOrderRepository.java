@@ -0,0 +1,182 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import io.r2dbc.spi.Row;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository for the Order entity, over R2DBC.
+ * <p>
+ * It reads the same rows as {@link OrderRepository}, returning {@link OrderSummary} projections for listings.
+ */
+@Repository
+@Profile(Constants.SPRING_PROFILE_REACTIVE)
+public class ReactiveOrderRepository {
+    private static final String SELECT_SUMMARY = "select o.id, o.product, o.cost, o.customer_id from jhi_order o";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "id",
+        "o.id",
+        "product",
+        "o.product",
+        "cost",
+        "o.cost",
+        "customerId",
+        "o.customer_id",
+        "customer.id",
+        "o.customer_id"
+    );
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveOrderRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Whether orders can be sorted this way.
+     *
+     * @param sort the sort of the orders.
+     * @return {@code true} if all the properties of the sort are columns of the summaries.
+     */
+    public static boolean isSortSupported(Sort sort) {
+        return sort.stream().allMatch(order -> SORT_COLUMNS.containsKey(order.getProperty()));
+    }
+
+    /**
+     * @param sort   the sort of the orders, see {@link #isSortSupported}.
+     * @param offset the number of orders to skip.
+     * @param limit  the maximum number of orders to return.
+     * @return the summaries of the orders.
+     */
+    public Flux<OrderSummary> findAllSummaries(Sort sort, long offset, int limit) {
+        return databaseClient
+            .execute(SELECT_SUMMARY + orderBy(sort) + " limit :limit offset :offset")
+            .bind("limit", limit)
+            .bind("offset", offset)
+            .map((row, metadata) -> toSummary(row))
+            .all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.execute("select count(*) from jhi_order").map((row, metadata) -> row.get(0, Long.class)).one();
+    }
+
+    public Flux<OrderSummary> findAllSummariesByCustomerId(Long customerId, Sort sort, long offset, int limit) {
+        return databaseClient
+            .execute(SELECT_SUMMARY + " where o.customer_id = :customerId" + orderBy(sort) + " limit :limit offset :offset")
+            .bind("customerId", customerId)
+            .bind("limit", limit)
+            .bind("offset", offset)
+            .map((row, metadata) -> toSummary(row))
+            .all();
+    }
+
+    public Mono<Long> countByCustomerId(Long customerId) {
+        return databaseClient
+            .execute("select count(*) from jhi_order where customer_id = :customerId")
+            .bind("customerId", customerId)
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one();
+    }
+
+    /**
+     * Get an order with its customer, as loaded by {@link OrderRepository#findById}.
+     *
+     * @param id the id of the order.
+     * @return the order, or an empty {@link Mono} if it doesn't exist.
+     */
+    public Mono<Order> findById(Long id) {
+        return databaseClient
+            .execute(
+                "select o.id, o.product, o.cost, o.version, c.id as customer_id, c.name as customer_name " +
+                "from jhi_order o left join customer c on c.id = o.customer_id where o.id = :id"
+            )
+            .bind("id", id)
+            .map(
+                (row, metadata) -> {
+                    Long customerId = row.get("customer_id", Long.class);
+                    Customer customer = customerId != null
+                        ? new Customer().id(customerId).name(row.get("customer_name", String.class))
+                        : null;
+                    return new Order()
+                        .id(row.get("id", Long.class))
+                        .product(row.get("product", String.class))
+                        .cost(row.get("cost", Double.class))
+                        .version(row.get("version", Long.class))
+                        .customer(customer);
+                }
+            )
+            .one();
+    }
+
+    private static OrderSummary toSummary(Row row) {
+        return new Summary(
+            row.get("id", Long.class),
+            row.get("product", String.class),
+            row.get("cost", Double.class),
+            row.get("customer_id", Long.class)
+        );
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        return sort
+            .stream()
+            .map(
+                order -> {
+                    String column = SORT_COLUMNS.get(order.getProperty());
+                    if (column == null) {
+                        throw new IllegalArgumentException("Cannot sort orders by " + order.getProperty());
+                    }
+                    return column + (order.isAscending() ? " asc" : " desc");
+                }
+            )
+            .collect(Collectors.joining(", ", " order by ", ""));
+    }
+
+    private static final class Summary implements OrderSummary {
+        private final Long id;
+        private final String product;
+        private final Double cost;
+        private final Long customerId;
+
+        private Summary(Long id, String product, Double cost, Long customerId) {
+            this.id = id;
+            this.product = product;
+            this.cost = cost;
+            this.customerId = customerId;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getProduct() {
+            return product;
+        }
+
+        @Override
+        public Double getCost() {
+            return cost;
+        }
+
+        @Override
+        public Long getCustomerId() {
+            return customerId;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.RevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JPA repository for the {@link RevokedToken} entity.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    /**
+     * Get the tokens revoked since a given time which have not expired yet.
+     *
+     * @param revokedAt the time from which to get the revocations.
+     * @param now the current time.
+     * @return the revoked tokens.
+     */
+    List<RevokedToken> findAllByRevokedAtGreaterThanEqualAndExpiresAtAfter(Instant revokedAt, Instant now);
+
+    /**
+     * Delete the revocations of the expired tokens, which are rejected anyway.
+     *
+     * @param now the current time.
+     * @return the number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,211 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the users with their authorities, as read by login or by email.
+ * <p>
+ * Each user is cached once, as an immutable snapshot keyed by id in the {@code users} region, and found through the
+ * {@code login:} and lowercase {@code email:} entries of the {@code userIds} region, which only hold its id. An index
+ * entry is trusted only if the snapshot it points to still has its login or email, so evicting the snapshot
+ * invalidates both lookups at once, and the stale index entries left after a change of login or email, or a deletion,
+ * are just misses.
+ * <p>
+ * Lookups return a new detached {@link User} each time, which callers can't use to change the cached snapshot.
+ * <p>
+ * Lookups finding no user are remembered in the {@code unknownUsers} region, so that the unknown logins and emails of
+ * credential stuffing on {@code POST /api/authenticate} don't reach the database again. The region is bounded, and
+ * its entries expire after a minute: that is how long a user created on another instance may be unknown here, while
+ * this instance forgets the entries of the users it creates or renames, see {@link #evict(User)}.
+ */
+@Component
+public class UserCache {
+    public static final String USERS_CACHE = "users";
+
+    public static final String USER_IDS_CACHE = "userIds";
+
+    public static final String UNKNOWN_USERS_CACHE = "unknownUsers";
+
+    private final UserRepository userRepository;
+
+    private final CacheManager cacheManager;
+
+    public UserCache(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get a user with its authorities by login.
+     *
+     * @param login the login of the user.
+     * @return the user.
+     */
+    public Optional<User> findOneWithAuthoritiesByLogin(String login) {
+        return find(loginKey(login), snapshot -> snapshot.login.equals(login), () -> userRepository.findOneWithAuthoritiesByLogin(login));
+    }
+
+    /**
+     * Get a user with its authorities by email, ignoring its case.
+     *
+     * @param email the email of the user.
+     * @return the user.
+     */
+    public Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email) {
+        return find(
+            emailKey(email),
+            snapshot -> email.equalsIgnoreCase(snapshot.email),
+            () -> userRepository.findOneWithAuthoritiesByEmailIgnoreCase(email)
+        );
+    }
+
+    /**
+     * Evict a user, for all its lookups, and forget that its login and email were unknown.
+     *
+     * @param user the user.
+     */
+    public void evict(User user) {
+        if (user.getId() != null) {
+            usersCache().evict(user.getId());
+        }
+        Cache unknownUsers = unknownUsersCache();
+        unknownUsers.evict(loginKey(user.getLogin()));
+        if (user.getEmail() != null) {
+            unknownUsers.evict(emailKey(user.getEmail()));
+        }
+    }
+
+    private Optional<User> find(String key, Predicate<Snapshot> matches, Supplier<Optional<User>> loader) {
+        Cache unknownUsers = unknownUsersCache();
+        if (unknownUsers.get(key) != null) {
+            return Optional.empty();
+        }
+        Cache users = usersCache();
+        Long id = userIdsCache().get(key, Long.class);
+        if (id != null) {
+            Snapshot snapshot = users.get(id, Snapshot.class);
+            if (snapshot != null && matches.test(snapshot)) {
+                return Optional.of(snapshot.toUser());
+            }
+        }
+        Optional<User> user = loader.get();
+        if (user.isPresent()) {
+            users.put(user.get().getId(), new Snapshot(user.get()));
+            userIdsCache().put(key, user.get().getId());
+        } else {
+            unknownUsers.put(key, Boolean.TRUE);
+        }
+        return user;
+    }
+
+    private static String loginKey(String login) {
+        return "login:" + login;
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email.toLowerCase(Locale.ENGLISH);
+    }
+
+    private Cache usersCache() {
+        return Objects.requireNonNull(cacheManager.getCache(USERS_CACHE));
+    }
+
+    private Cache userIdsCache() {
+        return Objects.requireNonNull(cacheManager.getCache(USER_IDS_CACHE));
+    }
+
+    private Cache unknownUsersCache() {
+        return Objects.requireNonNull(cacheManager.getCache(UNKNOWN_USERS_CACHE));
+    }
+
+    /**
+     * The authorities are kept by name, instead of as entities.
+     */
+    private static final class Snapshot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Long id;
+        private final String login;
+        private final String password;
+        private final String firstName;
+        private final String lastName;
+        private final String email;
+        private final String imageUrl;
+        private final boolean activated;
+        private final String langKey;
+        private final String activationKey;
+        private final String resetKey;
+        private final Instant resetDate;
+        private final String createdBy;
+        private final Instant createdDate;
+        private final String lastModifiedBy;
+        private final Instant lastModifiedDate;
+        private final Set<String> authorities;
+
+        private Snapshot(User user) {
+            this.id = user.getId();
+            this.login = user.getLogin();
+            this.password = user.getPassword();
+            this.firstName = user.getFirstName();
+            this.lastName = user.getLastName();
+            this.email = user.getEmail();
+            this.imageUrl = user.getImageUrl();
+            this.activated = user.getActivated();
+            this.langKey = user.getLangKey();
+            this.activationKey = user.getActivationKey();
+            this.resetKey = user.getResetKey();
+            this.resetDate = user.getResetDate();
+            this.createdBy = user.getCreatedBy();
+            this.createdDate = user.getCreatedDate();
+            this.lastModifiedBy = user.getLastModifiedBy();
+            this.lastModifiedDate = user.getLastModifiedDate();
+            this.authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toUnmodifiableSet());
+        }
+
+        private User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setLogin(login);
+            user.setPassword(password);
+            user.setFirstName(firstName);
+            user.setLastName(lastName);
+            user.setEmail(email);
+            user.setImageUrl(imageUrl);
+            user.setActivated(activated);
+            user.setLangKey(langKey);
+            user.setActivationKey(activationKey);
+            user.setResetKey(resetKey);
+            user.setResetDate(resetDate);
+            user.setCreatedBy(createdBy);
+            user.setCreatedDate(createdDate);
+            user.setLastModifiedBy(lastModifiedBy);
+            user.setLastModifiedDate(lastModifiedDate);
+            user.setAuthorities(
+                authorities
+                    .stream()
+                    .map(
+                        name -> {
+                            Authority authority = new Authority();
+                            authority.setName(name);
+                            return authority;
+                        }
+                    )
+                    .collect(Collectors.toSet())
+            );
+            return user;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.mycompany.myapp.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Objects;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates users from the database, like the default {@link DaoAuthenticationProvider}, but keeps successful
+ * verifications for a short time, so that clients sending their credentials with each request, with HTTP Basic
+ * authentication, don't pay for a BCrypt verification and a database read each time.
+ * <p>
+ * Verifications are cached by login, or email, in the {@code verifiedCredentials} region, with a keyed hash of the
+ * password: the key is random and only lives in memory, and hashes are compared in constant time. Entries are
+ * evicted by {@link com.mycompany.myapp.service.UserService} whenever a user changes, so that a changed password or a
+ * deleted user is never authenticated from the cache.
+ */
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+    public static final String VERIFIED_CREDENTIALS_CACHE = "verifiedCredentials";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final DaoAuthenticationProvider delegate = new DaoAuthenticationProvider();
+
+    private final CacheManager cacheManager;
+
+    private final SecretKeySpec hashKey;
+
+    public CachingAuthenticationProvider(
+        UserDetailsService userDetailsService,
+        PasswordEncoder passwordEncoder,
+        CacheManager cacheManager
+    ) {
+        delegate.setUserDetailsService(userDetailsService);
+        delegate.setPasswordEncoder(PasswordVerificationExecutor.verifyingOnPool(passwordEncoder));
+        this.cacheManager = cacheManager;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hashKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        if (authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(VERIFIED_CREDENTIALS_CACHE));
+        String login = authentication.getName().toLowerCase(Locale.ENGLISH);
+        byte[] passwordHash = hash(login, authentication.getCredentials().toString());
+        VerifiedCredentials verified = cache.get(login, VerifiedCredentials.class);
+        if (isVerified(verified, passwordHash)) {
+            UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(
+                verified.user,
+                authentication.getCredentials(),
+                verified.user.getAuthorities()
+            );
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+        Authentication result = delegate.authenticate(authentication);
+        cache.put(login, new VerifiedCredentials((UserDetails) result.getPrincipal(), passwordHash));
+        return result;
+    }
+
+    /**
+     * Tell whether credentials were verified recently, without verifying them.
+     *
+     * @param authentication the authentication request, with the login and password.
+     * @return {@code true} if they are cached.
+     */
+    public boolean isVerified(Authentication authentication) {
+        if (authentication.getCredentials() == null) {
+            return false;
+        }
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(VERIFIED_CREDENTIALS_CACHE));
+        String login = authentication.getName().toLowerCase(Locale.ENGLISH);
+        return isVerified(cache.get(login, VerifiedCredentials.class), hash(login, authentication.getCredentials().toString()));
+    }
+
+    private static boolean isVerified(VerifiedCredentials verified, byte[] passwordHash) {
+        return verified != null && MessageDigest.isEqual(verified.passwordHash, passwordHash);
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    private byte[] hash(String login, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hashKey);
+            mac.update(login.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The password of the user is erased once it is authenticated.
+     */
+    private static final class VerifiedCredentials {
+        private final UserDetails user;
+        private final byte[] passwordHash;
+
+        private VerifiedCredentials(UserDetails user, byte[] passwordHash) {
+            this.user = user;
+            this.passwordHash = passwordHash;
+        }
+    }
+}
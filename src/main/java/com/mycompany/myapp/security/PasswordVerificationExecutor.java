@@ -0,0 +1,210 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.config.VirtualThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded pool verifying the passwords of {@code POST /api/authenticate}.
+ * <p>
+ * A BCrypt verification keeps a core busy for tens of milliseconds, so a burst of logins on the request threads would
+ * take the CPU from all the other requests. Only the verification leaves the request thread: the
+ * {@link #verifyingOnPool(PasswordEncoder) password encoder of the authentication provider} hands it over to this pool
+ * and waits for it, so users are still loaded on the request thread, and logins found in the cache of the
+ * {@link CachingAuthenticationProvider} don't queue. Verifications get one thread per processor, or
+ * {@code application.security.password-verification-threads}, and a queue of as many logins, or
+ * {@code application.security.password-verification-queue}: beyond it, logins are rejected at once with a
+ * {@link PasswordVerificationRejectedException}, answered with a {@code 503} and a {@code Retry-After}.
+ * <p>
+ * Each login in the pool or in its queue blocks a request thread, so unless requests run on virtual threads, they are
+ * limited to a quarter of the Undertow worker threads: a burst of logins leaves the other requests most of the workers.
+ * <p>
+ * The time spent in the queue and verifying are timed as {@code authentication.password.queue.wait} and
+ * {@code authentication.password.verification}, rejections counted as {@code authentication.password.rejections}.
+ */
+@Component
+public class PasswordVerificationExecutor implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(PasswordVerificationExecutor.class);
+
+    private static final ThreadLocal<PasswordVerificationExecutor> CURRENT = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration retryAfter;
+
+    private final Timer queueWait;
+
+    private final Timer verification;
+
+    private final Counter rejections;
+
+    public PasswordVerificationExecutor(ApplicationProperties applicationProperties, Environment env, MeterRegistry registry) {
+        ApplicationProperties.Security properties = applicationProperties.getSecurity();
+        int processors = Runtime.getRuntime().availableProcessors();
+        int threads = properties.getPasswordVerificationThreads() > 0 ? properties.getPasswordVerificationThreads() : processors;
+        int queue = properties.getPasswordVerificationQueue() > 0 ? properties.getPasswordVerificationQueue() : threads;
+        if (!VirtualThreads.isEnabled(env)) {
+            // Undertow's default is 8 workers per I/O thread, and an I/O thread per processor
+            int workers = env.getProperty("server.undertow.threads.worker", Integer.class, Math.max(processors, 2) * 8);
+            int maxLogins = Math.max(workers / 4, 2);
+            if (threads + queue > maxLogins) {
+                log.warn(
+                    "{} password verification threads and {} queued logins would block most of the {} workers",
+                    threads,
+                    queue,
+                    workers
+                );
+                threads = Math.min(threads, maxLogins - 1);
+                queue = maxLogins - threads;
+            }
+        }
+        this.executor =
+            new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                new CustomizableThreadFactory("password-verification-"),
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+        this.retryAfter = properties.getPasswordVerificationRetryAfter();
+        this.queueWait =
+            Timer
+                .builder("authentication.password.queue.wait")
+                .description("Time spent waiting for a verification thread")
+                .register(registry);
+        this.verification =
+            Timer.builder("authentication.password.verification").description("Time spent verifying a password").register(registry);
+        this.rejections =
+            Counter.builder("authentication.password.rejections").description("Logins rejected as the queue was full").register(registry);
+        Gauge
+            .builder("authentication.password.queue", executor, pool -> pool.getQueue().size())
+            .description("Logins waiting for a verification thread")
+            .register(registry);
+    }
+
+    /**
+     * Authenticate on the calling thread, with the password verifications of the
+     * {@linkplain #verifyingOnPool(PasswordEncoder) pooled encoders} running on a verification thread.
+     *
+     * @param authenticationManager the authentication manager verifying the password.
+     * @param authentication the authentication request.
+     * @return the authentication.
+     * @throws PasswordVerificationRejectedException if the queue is full.
+     */
+    public Authentication authenticate(AuthenticationManager authenticationManager, Authentication authentication) {
+        CURRENT.set(this);
+        try {
+            return authenticationManager.authenticate(authentication);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Wrap a password encoder, so that its verifications run on the pool when they are part of
+     * {@link #authenticate(AuthenticationManager, Authentication)}, and on the calling thread otherwise.
+     *
+     * @param passwordEncoder the password encoder.
+     * @return the wrapped password encoder.
+     */
+    public static PasswordEncoder verifyingOnPool(PasswordEncoder passwordEncoder) {
+        return new PooledPasswordEncoder(passwordEncoder);
+    }
+
+    private boolean matches(PasswordEncoder passwordEncoder, CharSequence rawPassword, String encodedPassword) {
+        long submitted = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result =
+                executor.submit(
+                    () -> {
+                        long started = System.nanoTime();
+                        queueWait.record(started - submitted, TimeUnit.NANOSECONDS);
+                        try {
+                            return passwordEncoder.matches(rawPassword, encodedPassword);
+                        } finally {
+                            verification.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                );
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new PasswordVerificationRejectedException(retryAfter);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Could not verify a password", e.getCause());
+        }
+    }
+
+    /**
+     * Get the number of logins verified or queued at most, beyond which they are rejected.
+     */
+    int getMaxLogins() {
+        return executor.getMaximumPoolSize() + executor.getQueue().remainingCapacity() + executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class PooledPasswordEncoder implements PasswordEncoder {
+        private final PasswordEncoder delegate;
+
+        private PooledPasswordEncoder(PasswordEncoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            PasswordVerificationExecutor executor = CURRENT.get();
+            if (executor == null) {
+                return delegate.matches(rawPassword, encodedPassword);
+            }
+            return executor.matches(delegate, rawPassword, encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
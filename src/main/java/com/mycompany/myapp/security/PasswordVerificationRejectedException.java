@@ -0,0 +1,21 @@
+package com.mycompany.myapp.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when there are already too many passwords waiting to be verified.
+ */
+public class PasswordVerificationRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public PasswordVerificationRejectedException(Duration retryAfter) {
+        super("Too many authentications in progress");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
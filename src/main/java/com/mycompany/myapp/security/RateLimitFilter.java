@@ -0,0 +1,351 @@
+package com.mycompany.myapp.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.jwt.TokenProvider;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.www.BasicAuthenticationConverter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.GenericFilterBean;
+
+/**
+ * Limits the rate of requests of each user, or of each IP for anonymous requests, with a token bucket.
+ * <p>
+ * It runs before the Spring Security filters, so it also sees the requests they ignore, and the requests they reject.
+ * Users are found from their JWT, verified by the {@link TokenProvider}, or from their HTTP Basic credentials, if the
+ * {@link CachingAuthenticationProvider} verified them recently: credentials which aren't verified yet, maybe wrong,
+ * only count for their IP. It rejects the requests finding their bucket empty with a {@code 429}. Every response gets
+ * the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset} headers, and rejected ones a
+ * {@code Retry-After}.
+ * <p>
+ * Anonymous requests are keyed on their remote address, which is the client's only when
+ * {@code server.forward-headers-strategy} trusts the proxies in front of the application. Routes with a
+ * {@code login-capacity}, like {@code /api/authenticate}, also limit the logins submitted to them, from the
+ * {@code username} of their JSON body or from their HTTP Basic credentials: guessing the password of a user is limited
+ * whatever the addresses it comes from, while the users sharing an address keep their own logins.
+ * <p>
+ * A bucket is a single {@link AtomicLong}, the time at which it will be full again: taking a token moves it forward by
+ * the refill interval, as long as it stays within the capacity of the bucket, with a compare-and-set. Full buckets
+ * carry no state, so they are the first ones evicted when a route has {@code max-keys} buckets.
+ */
+public class RateLimitFilter extends GenericFilterBean {
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int MAX_BUFFERED_BODY = 8192;
+
+    private final boolean enabled;
+
+    private final List<Limit> limits = new ArrayList<>();
+
+    private final TokenProvider tokenProvider;
+
+    private final CachingAuthenticationProvider authenticationProvider;
+
+    private final BasicAuthenticationConverter basicAuthenticationConverter = new BasicAuthenticationConverter();
+
+    /**
+     * Create the filter.
+     *
+     * @param properties the limits.
+     * @param tokenProvider the provider verifying JWTs.
+     * @param authenticationProvider the provider verifying HTTP Basic credentials.
+     * @throws IllegalArgumentException if a limit has no capacity or isn't refilled.
+     */
+    public RateLimitFilter(
+        ApplicationProperties.RateLimit properties,
+        TokenProvider tokenProvider,
+        CachingAuthenticationProvider authenticationProvider
+    ) {
+        this.enabled = properties.isEnabled();
+        this.tokenProvider = tokenProvider;
+        this.authenticationProvider = authenticationProvider;
+        int maxKeys = properties.getMaxKeys();
+        for (ApplicationProperties.RateLimit.Route route : properties.getRoutes()) {
+            RequestMatcher matcher = new AntPathRequestMatcher(route.getPath());
+            Limit limit = new Limit(matcher, route.getCapacity(), route.getRefillPerSecond(), maxKeys);
+            if (route.getLoginCapacity() > 0) {
+                limit.loginLimit = new Limit(matcher, route.getLoginCapacity(), route.getLoginRefillPerSecond(), maxKeys);
+            }
+            limits.add(limit);
+        }
+        limits.add(new Limit(AnyRequestMatcher.INSTANCE, properties.getCapacity(), properties.getRefillPerSecond(), maxKeys));
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
+        throws IOException, ServletException {
+        if (!enabled) {
+            filterChain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        Limit limit = limitFor(request);
+        long now = System.nanoTime();
+        String login = login(request);
+        long untilFull = limit.acquire(login != null ? "user:" + login : "ip:" + request.getRemoteAddr(), now);
+        if (untilFull >= 0 && login == null && limit.loginLimit != null) {
+            request = BufferedRequest.of(request);
+            String submitted = submittedLogin(request);
+            if (submitted != null) {
+                long loginUntilFull = limit.loginLimit.acquire("login:" + submitted, now);
+                // Report the emptiest bucket
+                if (loginUntilFull < 0 || limit.loginLimit.remaining(loginUntilFull) < limit.remaining(untilFull)) {
+                    limit = limit.loginLimit;
+                    untilFull = loginUntilFull;
+                }
+            }
+        }
+        response.setHeader(LIMIT_HEADER, String.valueOf(limit.capacity));
+        if (untilFull < 0) {
+            long untilToken = -untilFull - limit.burstNanos;
+            response.setHeader(REMAINING_HEADER, "0");
+            response.setHeader(RESET_HEADER, String.valueOf(toSeconds(untilToken)));
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(toSeconds(untilToken)));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        response.setHeader(REMAINING_HEADER, String.valueOf(limit.remaining(untilFull)));
+        response.setHeader(RESET_HEADER, String.valueOf(toSeconds(untilFull)));
+        filterChain.doFilter(request, servletResponse);
+    }
+
+    private Limit limitFor(HttpServletRequest request) {
+        for (Limit limit : limits) {
+            if (limit.matcher.matches(request)) {
+                return limit;
+            }
+        }
+        throw new IllegalStateException("The last limit matches any request");
+    }
+
+    /**
+     * Find the user of a request from its verified credentials.
+     */
+    private String login(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null) {
+            return null;
+        }
+        if (authorization.startsWith("Bearer ")) {
+            Authentication authentication = tokenProvider.getValidAuthentication(authorization.substring(7));
+            return authentication != null ? authentication.getName() : null;
+        }
+        UsernamePasswordAuthenticationToken credentials;
+        try {
+            credentials = basicAuthenticationConverter.convert(request);
+        } catch (AuthenticationException e) {
+            return null;
+        }
+        if (credentials == null || !authenticationProvider.isVerified(credentials)) {
+            return null;
+        }
+        return credentials.getName().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Find the login submitted by a request, verified or not.
+     */
+    private String submittedLogin(HttpServletRequest request) throws IOException {
+        String login = null;
+        if (request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+            try {
+                UsernamePasswordAuthenticationToken credentials = basicAuthenticationConverter.convert(request);
+                login = credentials != null ? credentials.getName() : null;
+            } catch (AuthenticationException e) {
+                return null;
+            }
+        } else if (request instanceof BufferedRequest && MediaType.APPLICATION_JSON.isCompatibleWith(contentType(request))) {
+            try {
+                login = OBJECT_MAPPER.readTree(((BufferedRequest) request).body).path("username").textValue();
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+        return login != null ? login.toLowerCase(Locale.ENGLISH) : null;
+    }
+
+    private static MediaType contentType(HttpServletRequest request) {
+        try {
+            return request.getContentType() != null ? MediaType.parseMediaType(request.getContentType()) : null;
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static final class Limit {
+        private final RequestMatcher matcher;
+        private final int capacity;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final int maxKeys;
+        private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean();
+        private Limit loginLimit;
+
+        private Limit(RequestMatcher matcher, int capacity, double refillPerSecond, int maxKeys) {
+            if (capacity <= 0 || !(refillPerSecond > 0)) {
+                throw new IllegalArgumentException(
+                    "The rate limit of " + matcher + " must have a positive capacity and refill-per-second, not " +
+                    capacity +
+                    " and " +
+                    refillPerSecond
+                );
+            }
+            this.matcher = matcher;
+            this.capacity = capacity;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burstNanos = capacity * intervalNanos;
+            this.maxKeys = maxKeys;
+        }
+
+        private long remaining(long untilFull) {
+            return (burstNanos - untilFull) / intervalNanos;
+        }
+
+        /**
+         * Take a token from the bucket of a key.
+         *
+         * @return the nanoseconds until the bucket is full again, negated if there was no token left.
+         */
+        private long acquire(String key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxKeys) {
+                    evict(now);
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+            while (true) {
+                long full = bucket.get();
+                long untilFull = Math.max(full - now, 0) + intervalNanos;
+                if (untilFull > burstNanos) {
+                    return -untilFull;
+                }
+                if (bucket.compareAndSet(full, now + untilFull)) {
+                    return untilFull;
+                }
+            }
+        }
+
+        /**
+         * Remove the full buckets, then arbitrary ones if there are still too many.
+         */
+        private void evict(long now) {
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+                Iterator<AtomicLong> iterator = buckets.values().iterator();
+                while (buckets.size() > maxKeys * 9L / 10 && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * A request whose small body is read once, to find its login, and read again by the application.
+     */
+    private static final class BufferedRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private BufferedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        /**
+         * Buffer the body of a request, unless it is larger than a login, or of an unknown length.
+         */
+        private static HttpServletRequest of(HttpServletRequest request) throws IOException {
+            long length = request.getContentLengthLong();
+            if (length < 0 || length > MAX_BUFFERED_BODY) {
+                return request;
+            }
+            return new BufferedRequest(request, StreamUtils.copyToByteArray(request.getInputStream()));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("The body is already read");
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    return in.read(bytes, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+}
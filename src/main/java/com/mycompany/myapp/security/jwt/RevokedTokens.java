@@ -0,0 +1,187 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The JWTs revoked before their expiration, by SHA-256 digest.
+ * <p>
+ * Revocations are stored in the database, so that all the instances see them, and mirrored in memory: a Bloom filter
+ * answers for almost all the tokens, which were never revoked, without a lookup, and only its positives are checked in
+ * the exact set of revoked digests. The revocations of the other instances are loaded every 10 seconds, from the time
+ * of the previous refresh minus a minute, for the transactions committed late. Expired tokens are rejected anyway, so
+ * their revocations are deleted every night.
+ * <p>
+ * The Bloom filter is sized for {@code application.security.revoked-token-capacity} tokens with a 1% false positive
+ * rate, and rebuilt twice as large when there are more.
+ */
+@Component
+public class RevokedTokens {
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final Logger log = LoggerFactory.getLogger(RevokedTokens.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final ConcurrentMap<String, Instant> expirations = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter bloomFilter;
+
+    private Instant refreshedAt = Instant.EPOCH;
+
+    public RevokedTokens(RevokedTokenRepository revokedTokenRepository, ApplicationProperties applicationProperties) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bloomFilter = new BloomFilter(applicationProperties.getSecurity().getRevokedTokenCapacity());
+    }
+
+    /**
+     * Check whether a token was revoked.
+     *
+     * @param digest the Base64 SHA-256 digest of the token.
+     * @return {@code true} if the token was revoked.
+     */
+    public boolean isRevoked(String digest) {
+        return bloomFilter.mightContain(digest) && expirations.containsKey(digest);
+    }
+
+    /**
+     * Revoke a token until it expires.
+     *
+     * @param digest the Base64 SHA-256 digest of the token.
+     * @param login the login of the user of the token.
+     * @param expiresAt the expiration of the token.
+     */
+    public synchronized void revoke(String digest, String login, Instant expiresAt) {
+        if (expirations.containsKey(digest)) {
+            return;
+        }
+        try {
+            revokedTokenRepository.save(new RevokedToken().digest(digest).login(login).expiresAt(expiresAt).revokedAt(Instant.now()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Token of {} already revoked by another instance", login);
+        }
+        add(digest, expiresAt);
+    }
+
+    /**
+     * Load the tokens revoked since the previous refresh, by any instance.
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void refresh() {
+        Instant now = Instant.now();
+        Instant from = refreshedAt.equals(Instant.EPOCH) ? Instant.EPOCH : refreshedAt.minus(REFRESH_OVERLAP);
+        List<RevokedToken> revokedTokens;
+        try {
+            revokedTokens = revokedTokenRepository.findAllByRevokedAtGreaterThanEqualAndExpiresAtAfter(from, now);
+        } catch (DataAccessException e) {
+            log.warn("Could not load the revoked tokens: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            for (RevokedToken revokedToken : revokedTokens) {
+                add(revokedToken.getDigest(), revokedToken.getExpiresAt());
+            }
+            refreshedAt = now;
+        }
+        if (!revokedTokens.isEmpty()) {
+            log.debug("Loaded {} revoked tokens", revokedTokens.size());
+        }
+    }
+
+    /**
+     * Expired tokens are rejected anyway, so their revocations are deleted.
+     * <p>
+     * This is scheduled to run every day, at 01:30 (am).
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void removeExpired() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        synchronized (this) {
+            expirations.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+            rebuild(bloomFilter.capacity);
+        }
+        log.debug("Deleted {} expired token revocations", deleted);
+    }
+
+    /**
+     * The digest goes to the exact set first, so that a digest found by the Bloom filter is always in the set.
+     */
+    private void add(String digest, Instant expiresAt) {
+        if (expirations.put(digest, expiresAt) == null) {
+            if (expirations.size() > bloomFilter.capacity) {
+                rebuild(bloomFilter.capacity * 2);
+            } else {
+                bloomFilter.add(digest);
+            }
+        }
+    }
+
+    /**
+     * Readers keep the previous filter until the new one has all the digests.
+     */
+    private void rebuild(int capacity) {
+        BloomFilter rebuilt = new BloomFilter(Math.max(capacity, expirations.size()));
+        expirations.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+    }
+
+    /**
+     * A Bloom filter of SHA-256 digests, which are uniformly distributed: the two halves of their first 16 bytes are
+     * used as the two hashes of the double hashing.
+     */
+    private static final class BloomFilter {
+        private static final int BITS_PER_ENTRY = 10;
+        private static final int HASHES = 7;
+
+        private final int capacity;
+        private final long bitCount;
+        private final AtomicLongArray bits;
+
+        private BloomFilter(int capacity) {
+            this.capacity = Math.max(capacity, 1);
+            int words = (int) ((this.capacity * (long) BITS_PER_ENTRY + 63) / 64);
+            this.bitCount = words * 64L;
+            this.bits = new AtomicLongArray(words);
+        }
+
+        private void add(String digest) {
+            ByteBuffer hashes = ByteBuffer.wrap(Base64.getDecoder().decode(digest));
+            long hash1 = hashes.getLong(0);
+            long hash2 = hashes.getLong(8);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                long mask = 1L << bit;
+                bits.getAndUpdate((int) (bit >>> 6), word -> word | mask);
+            }
+        }
+
+        private boolean mightContain(String digest) {
+            ByteBuffer hashes = ByteBuffer.wrap(Base64.getDecoder().decode(digest));
+            long hash1 = hashes.getLong(0);
+            long hash2 = hashes.getLong(8);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,12 +25,27 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+/**
+ * Creates and verifies the JWTs of the users.
+ * <p>
+ * As clients present the same token with each request, verified tokens are kept, by SHA-256 digest, with their
+ * authentication until they expire: a cached token is neither parsed nor verified again. The cache holds at most
+ * {@code application.security.token-cache-size} tokens: expired ones are evicted first, then arbitrary ones.
+ * Authentications are immutable and share their authorities, which are interned.
+ * <p>
+ * Revoked tokens are rejected before the cache is looked up, see {@link RevokedTokens}.
+ * <p>
+ * With {@code application.security.profile-claims}, tokens also carry the profile of their user, which is given as
+ * the details of their authentication.
+ */
 @Component
 public class TokenProvider {
     private final Logger log = LoggerFactory.getLogger(TokenProvider.class);
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final String PROFILE_KEY = "profile";
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -32,7 +54,21 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final int tokenCacheSize;
+
+    private final boolean profileClaims;
+
+    private final RevokedTokens revokedTokens;
+
+    private final ConcurrentMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final ConcurrentMap<String, List<GrantedAuthority>> authoritiesByClaim = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties, RevokedTokens revokedTokens) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
         if (!StringUtils.isEmpty(secret)) {
@@ -50,9 +86,24 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.tokenCacheSize = applicationProperties.getSecurity().getTokenCacheSize();
+        this.profileClaims = applicationProperties.getSecurity().isProfileClaims();
+        this.revokedTokens = revokedTokens;
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
+        return createToken(authentication, rememberMe, null);
+    }
+
+    /**
+     * Create a token, with the profile of its user if {@code application.security.profile-claims} is enabled.
+     *
+     * @param authentication the authentication of the user.
+     * @param rememberMe whether the token has the remember-me validity.
+     * @param profile the profile claims of the user, may be {@code null}.
+     * @return the token.
+     */
+    public String createToken(Authentication authentication, boolean rememberMe, Map<String, Object> profile) {
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
 
         long now = (new Date()).getTime();
@@ -63,26 +114,130 @@ public class TokenProvider {
             validity = new Date(now + this.tokenValidityInMilliseconds);
         }
 
-        return Jwts
-            .builder()
-            .setSubject(authentication.getName())
-            .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
-            .setExpiration(validity)
-            .compact();
+        JwtBuilder builder = Jwts.builder().setSubject(authentication.getName()).claim(AUTHORITIES_KEY, authorities);
+        if (profileClaims && profile != null) {
+            builder.claim(PROFILE_KEY, profile);
+        }
+        return builder.signWith(key, SignatureAlgorithm.HS512).setExpiration(validity).compact();
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return toAuthentication(jwtParser.parseClaimsJws(token).getBody(), token);
+    }
+
+    /**
+     * Verify a token and get its authentication, parsing it only if it is not cached.
+     *
+     * @param token the token.
+     * @return the authentication, or {@code null} if the token is not valid or was revoked.
+     */
+    public Authentication getValidAuthentication(String token) {
+        String digest = digest(token);
+        if (revokedTokens.isRevoked(digest)) {
+            log.info("Revoked JWT token.");
+            return null;
+        }
+        VerifiedToken verified = verifiedTokens.get(digest);
+        long now = System.currentTimeMillis();
+        if (verified != null) {
+            // An authentication which was marked as not authenticated is replaced
+            if (now < verified.expiresAt && verified.authentication.isAuthenticated()) {
+                return verified.authentication;
+            }
+            verifiedTokens.remove(digest, verified);
+        }
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+            return null;
+        }
+        Authentication authentication = toAuthentication(claims, token);
+        if (verifiedTokens.size() >= tokenCacheSize) {
+            evict(now);
+        }
+        Date expiration = claims.getExpiration();
+        verifiedTokens.put(digest, new VerifiedToken(authentication, expiration != null ? expiration.getTime() : Long.MAX_VALUE));
+        return authentication;
+    }
+
+    /**
+     * Revoke a token until it expires.
+     *
+     * @param token the token.
+     * @return {@code false} if the token is not valid.
+     */
+    public boolean revokeToken(String token) {
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+            return false;
+        }
+        String digest = digest(token);
+        Date expiration = claims.getExpiration();
+        revokedTokens.revoke(
+            digest,
+            claims.getSubject(),
+            expiration != null ? expiration.toInstant() : Instant.now().plusMillis(tokenValidityInMillisecondsForRememberMe)
+        );
+        verifiedTokens.remove(digest);
+        return true;
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+    private Authentication toAuthentication(Claims claims, String token) {
+        // Only the claims of valid tokens, which were created by this application, are kept
+        List<GrantedAuthority> tokenAuthorities = authoritiesByClaim.computeIfAbsent(
+            claims.get(AUTHORITIES_KEY).toString(),
+            claim ->
+                Arrays
+                    .stream(claim.split(","))
+                    .map(name -> authorities.computeIfAbsent(name, SimpleGrantedAuthority::new))
+                    .collect(Collectors.toUnmodifiableList())
+        );
 
-        User principal = new User(claims.getSubject(), "", authorities);
+        User principal = new User(claims.getSubject(), "", tokenAuthorities);
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        Object profile = claims.get(PROFILE_KEY);
+        return new JWTAuthentication(
+            principal,
+            token,
+            tokenAuthorities,
+            profile instanceof Map ? Collections.unmodifiableMap((Map<?, ?>) profile) : null
+        );
+    }
+
+    /**
+     * Evict the expired tokens, then arbitrary ones if the cache is still full. Only one thread evicts at a time, the
+     * others go on.
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            verifiedTokens.values().removeIf(verified -> verified.expiresAt <= now);
+            Iterator<String> digests = verifiedTokens.keySet().iterator();
+            int target = tokenCacheSize - tokenCacheSize / 10 - 1;
+            while (verifiedTokens.size() > target && digests.hasNext()) {
+                digests.next();
+                digests.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public boolean validateToken(String authToken) {
@@ -95,4 +250,38 @@ public class TokenProvider {
         }
         return false;
     }
+
+    private static final class VerifiedToken {
+        private final Authentication authentication;
+        private final long expiresAt;
+
+        private VerifiedToken(Authentication authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A cached authentication is shared by all the requests with its token, so its details can't be changed, and its
+     * credentials aren't erased. It can only be marked as not authenticated, like any authentication, in which case the
+     * cache stops returning it. Its details are the profile claims of the token, if any.
+     */
+    private static final class JWTAuthentication extends UsernamePasswordAuthenticationToken {
+        private static final long serialVersionUID = 1L;
+
+        private JWTAuthentication(Object principal, String token, Collection<? extends GrantedAuthority> authorities, Map<?, ?> profile) {
+            super(principal, token, authorities);
+            super.setDetails(profile);
+        }
+
+        @Override
+        public void setDetails(Object details) {
+            throw new UnsupportedOperationException("JWT authentications are immutable");
+        }
+
+        @Override
+        public void eraseCredentials() {
+            // Shared with the next requests with the token, which need it
+        }
+    }
 }
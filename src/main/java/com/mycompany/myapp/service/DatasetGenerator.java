@@ -0,0 +1,252 @@
+package com.mycompany.myapp.service;
+
+import com.github.javafaker.Faker;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.EntityChangedEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service filling the database with a synthetic dataset, to see how the application behaves with millions of orders.
+ * <p>
+ * With the {@code datagen} profile, the dataset is generated once the application is ready, and the application is
+ * then stopped: {@code ./mvnw -Pdev,datagen -Dspring-boot.run.arguments=--application.datagen.orders=10000000}.
+ * <p>
+ * Customers get Faker names and orders Faker product names. The number of orders per customer follows a Zipf
+ * distribution, so that a few customers have most of the orders. Rows are written in chunks of
+ * {@code application.datagen.chunk-size} by parallel workers, with batched inserts. Each chunk has its own random
+ * generator and the ids follow the largest existing ones, so the dataset only depends on {@code application.datagen.seed}
+ * and on the chunk size, not on the number of workers. With MySQL, add {@code rewriteBatchedStatements=true} to
+ * the JDBC URL for the batches to be sent as multi-row inserts.
+ * <p>
+ * Rows are inserted with JDBC, which Hibernate doesn't see: the search indexes are rebuilt once they are all inserted,
+ * and the change of the tables is published as an {@link EntityChangedEvent}. The indexes are local to each instance,
+ * so the other instances have to be reindexed through {@code /management/searchindex}.
+ */
+@Service
+@Profile(Constants.SPRING_PROFILE_DATAGEN)
+public class DatasetGenerator {
+    private final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Datagen properties;
+
+    private final SearchService searchService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DatasetGenerator(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        SearchService searchService,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getDatagen();
+        this.searchService = searchService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateAndExit(ApplicationReadyEvent event) {
+        generate();
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+
+    /**
+     * Generate {@code application.datagen.customers} customers and {@code application.datagen.orders} orders, and index
+     * them.
+     */
+    public void generate() {
+        if (properties.getCustomers() <= 0 && properties.getOrders() > 0) {
+            throw new IllegalArgumentException("Cannot generate " + properties.getOrders() + " orders without customers");
+        }
+        if (properties.getChunkSize() <= 0 || properties.getBatchSize() <= 0 || properties.getWorkers() <= 0) {
+            throw new IllegalArgumentException("The chunk size, the batch size and the number of workers must be positive");
+        }
+        long start = System.nanoTime();
+        long firstCustomerId = nextId("customer");
+        long firstOrderId = nextId("jhi_order");
+        log.info(
+            "Generating {} customers from id {} and {} orders from id {}",
+            properties.getCustomers(),
+            firstCustomerId,
+            properties.getOrders(),
+            firstOrderId
+        );
+
+        long[] customerIdsByRank = customerIdsByRank(firstCustomerId);
+        double[] cumulativeWeights = zipfCumulativeWeights(properties.getCustomers());
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getWorkers());
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(Locale.forLanguageTag(properties.getLocale())));
+        try {
+            run(
+                executor,
+                "customer",
+                properties.getCustomers(),
+                "insert into customer (id, name) values (?, ?)",
+                (worker, index) -> new Object[] { firstCustomerId + index, worker.faker.name().fullName() },
+                workers
+            );
+            run(
+                executor,
+                "jhi_order",
+                properties.getOrders(),
+                "insert into jhi_order (id, product, cost, customer_id, version) values (?, ?, ?, ?, 0)",
+                (worker, index) ->
+                    new Object[] {
+                        firstOrderId + index,
+                        worker.faker.commerce().productName(),
+                        worker.faker.number().randomDouble(2, 1, 1000),
+                        customerIdsByRank[rank(cumulativeWeights, worker.random.nextDouble())]
+                    },
+                workers
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+        eventPublisher.publishEvent(new EntityChangedEvent(Customer.class));
+        eventPublisher.publishEvent(new EntityChangedEvent(Order.class));
+        log.info(
+            "Generated {} customers and {} orders in {} s, indexing them",
+            properties.getCustomers(),
+            properties.getOrders(),
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)
+        );
+        searchService.reindexAndWait();
+    }
+
+    private long nextId(String table) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        return maxId != null ? maxId + 1 : 1;
+    }
+
+    /**
+     * Shuffle the customers, so that the ones with the most orders are not the first ones.
+     */
+    private long[] customerIdsByRank(long firstCustomerId) {
+        Random random = new Random(properties.getSeed());
+        long[] ids = new long[properties.getCustomers()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = firstCustomerId + i;
+        }
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * The weight of rank {@code k} is {@code 1 / k^s}, normalized so that the last cumulative weight is 1.
+     */
+    private double[] zipfCumulativeWeights(int ranks) {
+        double[] cumulativeWeights = new double[ranks];
+        double sum = 0;
+        for (int k = 0; k < ranks; k++) {
+            sum += 1 / Math.pow(k + 1, properties.getZipfExponent());
+            cumulativeWeights[k] = sum;
+        }
+        for (int k = 0; k < ranks; k++) {
+            cumulativeWeights[k] /= sum;
+        }
+        return cumulativeWeights;
+    }
+
+    private static int rank(double[] cumulativeWeights, double uniform) {
+        int rank = Arrays.binarySearch(cumulativeWeights, uniform);
+        return Math.min(rank >= 0 ? rank : -rank - 1, cumulativeWeights.length - 1);
+    }
+
+    private void run(
+        ExecutorService executor,
+        String table,
+        long rows,
+        String sql,
+        RowGenerator rowGenerator,
+        ThreadLocal<Worker> workers
+    ) {
+        int chunkSize = properties.getChunkSize();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (long from = 0; from < rows; from += chunkSize) {
+            long chunk = from / chunkSize;
+            long chunkFrom = from;
+            long chunkTo = Math.min(from + chunkSize, rows);
+            chunks.add(
+                executor.submit(
+                    () -> {
+                        Worker worker = workers.get();
+                        worker.random.setSeed(properties.getSeed() * 31 + table.hashCode() * 17L + chunk);
+                        List<Object[]> batch = new ArrayList<>(properties.getBatchSize());
+                        for (long index = chunkFrom; index < chunkTo; index++) {
+                            batch.add(rowGenerator.generate(worker, index));
+                            if (batch.size() == properties.getBatchSize() || index == chunkTo - 1) {
+                                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+                                batch.clear();
+                            }
+                        }
+                        log.debug("Inserted {} rows {} to {}", table, chunkFrom, chunkTo);
+                    }
+                )
+            );
+        }
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating " + table, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not generate " + table, e.getCause());
+        }
+        log.info("Inserted {} {} rows", rows, table);
+    }
+
+    @FunctionalInterface
+    private interface RowGenerator {
+        Object[] generate(Worker worker, long index);
+    }
+
+    /**
+     * Faker loads its dictionaries when created, so each worker thread keeps its own, reseeded for each chunk.
+     */
+    private static final class Worker {
+        private final Random random = new Random();
+        private final Faker faker;
+
+        private Worker(Locale locale) {
+            this.faker = new Faker(locale, random);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mycompany.myapp.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Locks keeping a scheduled job to a single instance at a time, held in the {@code jhi_job_lock} table.
+ * <p>
+ * A lock is a lease: it is held until a given time, and taken over by another instance once that time is past, so that
+ * an instance which died while holding it doesn't keep the job from running. Holders renew the lease while they run,
+ * and the clocks of the instances must not drift apart by more than it.
+ */
+@Component
+public class JobLock {
+    private final String owner = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public JobLock(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Take a lock, or renew it if this instance already holds it.
+     *
+     * @param name the name of the lock.
+     * @param lease how long the lock is held, unless it is renewed or released.
+     * @return {@code true} if this instance holds the lock.
+     */
+    public boolean tryLock(String name, Duration lease) {
+        Instant now = Instant.now();
+        Timestamp lockedUntil = Timestamp.from(now.plus(lease));
+        Integer updated = transactionTemplate.execute(
+            status ->
+                jdbcTemplate.update(
+                    "update jhi_job_lock set locked_until = ?, locked_by = ? where name = ? and (locked_until <= ? or locked_by = ?)",
+                    lockedUntil,
+                    owner,
+                    name,
+                    Timestamp.from(now),
+                    owner
+                )
+        );
+        if (updated != null && updated > 0) {
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(
+                status ->
+                    jdbcTemplate.update("insert into jhi_job_lock (name, locked_until, locked_by) values (?, ?, ?)", name, lockedUntil, owner)
+            );
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Held by another instance
+            return false;
+        }
+    }
+
+    /**
+     * Release a lock held by this instance.
+     *
+     * @param name the name of the lock.
+     */
+    public void unlock(String name) {
+        transactionTemplate.executeWithoutResult(
+            status ->
+                jdbcTemplate.update(
+                    "update jhi_job_lock set locked_until = ? where name = ? and locked_by = ?",
+                    Timestamp.from(Instant.now()),
+                    name,
+                    owner
+                )
+        );
+    }
+}
@@ -0,0 +1,308 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Queue of the emails to send, delivered in batches over persistent SMTP connections.
+ * <p>
+ * Opening an SMTP connection, with its TLS handshake and authentication, costs much more than sending an email over
+ * it, and {@link JavaMailSenderImpl#send} opens one per call: after a bulk import of users, that is thousands of them.
+ * Instead, emails are queued, up to {@code application.mail.queue-capacity}, and each of the
+ * {@code application.mail.connections} sender threads keeps its own connection open, sending what is queued in
+ * batches of {@code application.mail.batch-size}. A connection unused for {@code application.mail.idle-timeout} is
+ * closed, and opened again for the next email.
+ * <p>
+ * A failed email is sent again on a new connection, up to {@code application.mail.max-attempts} times, after a backoff
+ * of {@code application.mail.retry-backoff} doubling each time, unless the server rejected it for good with a
+ * {@code 5xx} reply. Emails dispatched while the queue is full are dropped, and logged like the failed ones.
+ * <p>
+ * The senders are started with the application context. When it is closed, once the web server has stopped, the
+ * dispatcher stops accepting emails and the senders drain the queue, for up to
+ * {@code application.mail.shutdown-timeout}: the recipients of the emails still unsent are then logged, and counted as
+ * failures.
+ * <p>
+ * The queue is measured by the {@code mail.queue} gauge, emails are counted as {@code mail.sent},
+ * {@code mail.retries}, {@code mail.failures} and {@code mail.rejections}, and opened connections as
+ * {@code mail.connections}.
+ */
+@Component
+public class MailDispatcher implements SmartLifecycle {
+    private static final long POLL_MILLIS = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private final JavaMailSenderImpl mailSender;
+
+    private final BlockingQueue<MimeMessage> queue;
+
+    private final int connections;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final Duration retryBackoff;
+
+    private final long idleTimeoutNanos;
+
+    private final Duration shutdownTimeout;
+
+    private final Counter sent;
+
+    private final Counter retries;
+
+    private final Counter failures;
+
+    private final Counter rejections;
+
+    private final Counter opened;
+
+    private ExecutorService senders;
+
+    private volatile boolean stopping;
+
+    public MailDispatcher(JavaMailSenderImpl mailSender, ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.Mail properties = applicationProperties.getMail();
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.connections = properties.getConnections();
+        this.batchSize = properties.getBatchSize();
+        this.maxAttempts = properties.getMaxAttempts();
+        this.retryBackoff = properties.getRetryBackoff();
+        this.idleTimeoutNanos = properties.getIdleTimeout().toNanos();
+        this.shutdownTimeout = properties.getShutdownTimeout();
+        this.sent = Counter.builder("mail.sent").description("Emails sent").register(registry);
+        this.retries = Counter.builder("mail.retries").description("Emails sent again after a failure").register(registry);
+        this.failures = Counter.builder("mail.failures").description("Emails given up after failing").register(registry);
+        this.rejections = Counter.builder("mail.rejections").description("Emails dropped, not queued").register(registry);
+        this.opened = Counter.builder("mail.connections").description("SMTP connections opened").register(registry);
+        Gauge.builder("mail.queue", queue, BlockingQueue::size).description("Emails waiting to be sent").register(registry);
+    }
+
+    /**
+     * Start the sender threads. Emails dispatched before are queued, and sent once they are started.
+     */
+    @Override
+    public synchronized void start() {
+        if (senders != null) {
+            return;
+        }
+        senders = Executors.newFixedThreadPool(connections, new CustomizableThreadFactory("mail-dispatcher-"));
+        for (int i = 0; i < connections; i++) {
+            senders.execute(this::sendQueued);
+        }
+    }
+
+    /**
+     * Stop accepting emails, and give the senders {@code application.mail.shutdown-timeout} to send the queued ones.
+     */
+    @Override
+    public synchronized void stop() {
+        stopping = true;
+        if (senders == null || senders.isTerminated()) {
+            return;
+        }
+        senders.shutdown();
+        try {
+            if (senders.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+        List<MimeMessage> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        dropUnsent(unsent);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return senders != null && !stopping;
+    }
+
+    /**
+     * Stopped well after the web server, which stops in the default phase, so that the requests completed by its
+     * graceful shutdown can still send emails.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Queue an email, to be sent by a sender thread.
+     *
+     * @param message the email, created by the {@link JavaMailSenderImpl}.
+     * @return {@code false} if the queue is full or the dispatcher is stopped, and the email was dropped.
+     */
+    public boolean dispatch(MimeMessage message) {
+        if (stopping) {
+            rejections.increment();
+            log.warn("Email dispatcher is stopped, email to '{}' was dropped", recipients(message));
+            return false;
+        }
+        if (!queue.offer(message)) {
+            rejections.increment();
+            log.warn("Email queue is full, email to '{}' was dropped", recipients(message));
+            return false;
+        }
+        // Stopped meanwhile: the senders may have drained the queue already, and would never send it
+        if (stopping && queue.remove(message)) {
+            rejections.increment();
+            log.warn("Email dispatcher is stopped, email to '{}' was dropped", recipients(message));
+            return false;
+        }
+        return true;
+    }
+
+    private void sendQueued() {
+        Transport transport = null;
+        long lastSent = System.nanoTime();
+        Deque<MimeMessage> batch = new ArrayDeque<>(batchSize);
+        try {
+            while (!stopping || !queue.isEmpty()) {
+                MimeMessage first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (transport != null && System.nanoTime() - lastSent > idleTimeoutNanos) {
+                        transport = close(transport);
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                while (!batch.isEmpty()) {
+                    transport = send(transport, batch.peek());
+                    batch.poll();
+                }
+                lastSent = System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by stop, once the shutdown timeout elapsed
+            Thread.currentThread().interrupt();
+            dropUnsent(batch);
+        } finally {
+            close(transport);
+        }
+    }
+
+    private void dropUnsent(Collection<MimeMessage> unsent) {
+        for (MimeMessage message : unsent) {
+            failures.increment();
+            log.warn("Email to '{}' was not sent before shutdown", recipients(message));
+        }
+    }
+
+    /**
+     * Send an email, retrying on a new connection.
+     *
+     * @return the connection to send the next email with, {@code null} if it was closed.
+     */
+    private Transport send(Transport transport, MimeMessage message) throws InterruptedException {
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            try {
+                if (transport == null) {
+                    transport = connect();
+                }
+                if (message.getSentDate() == null) {
+                    message.setSentDate(new Date());
+                }
+                message.saveChanges();
+                transport.sendMessage(message, message.getAllRecipients());
+                sent.increment();
+                log.debug("Sent email to '{}'", recipients(message));
+                return transport;
+            } catch (MessagingException e) {
+                transport = close(transport);
+                if (attempt >= maxAttempts || isPermanent(e)) {
+                    failures.increment();
+                    log.warn("Email could not be sent to '{}'", recipients(message), e);
+                    return null;
+                }
+                retries.increment();
+                log.debug("Email could not be sent to '{}', attempt {}: {}", recipients(message), attempt, e.getMessage());
+                Thread.sleep(retryBackoff.toMillis() << (attempt - 1));
+            }
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        if ("".equals(username)) {
+            username = null;
+            if ("".equals(password)) {
+                password = null;
+            }
+        }
+        transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        opened.increment();
+        return transport;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Could not close SMTP connection: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A {@code 5xx} reply of the server, to the email or to one of its recipients, won't change by retrying.
+     */
+    private static boolean isPermanent(MessagingException e) {
+        Exception cause = e;
+        while (cause != null) {
+            if (cause instanceof SMTPSendFailedException && ((SMTPSendFailedException) cause).getReturnCode() >= 500) {
+                return true;
+            }
+            if (cause instanceof SMTPAddressFailedException && ((SMTPAddressFailedException) cause).getReturnCode() >= 500) {
+                return true;
+            }
+            cause = cause instanceof MessagingException ? ((MessagingException) cause).getNextException() : null;
+        }
+        return false;
+    }
+
+    private static String recipients(MimeMessage message) {
+        try {
+            return Arrays.toString(message.getAllRecipients());
+        } catch (MessagingException e) {
+            return "unknown";
+        }
+    }
+}
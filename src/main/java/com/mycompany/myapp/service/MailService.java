@@ -9,7 +9,6 @@ import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -20,7 +19,8 @@ import org.thymeleaf.spring5.SpringTemplateEngine;
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * We use the {@link Async} annotation to render templated emails asynchronously, and emails are sent by the
+ * {@link MailDispatcher}.
  */
 @Service
 public class MailService {
@@ -34,6 +34,8 @@ public class MailService {
 
     private final JavaMailSender javaMailSender;
 
+    private final MailDispatcher mailDispatcher;
+
     private final MessageSource messageSource;
 
     private final SpringTemplateEngine templateEngine;
@@ -41,16 +43,17 @@ public class MailService {
     public MailService(
         JHipsterProperties jHipsterProperties,
         JavaMailSender javaMailSender,
+        MailDispatcher mailDispatcher,
         MessageSource messageSource,
         SpringTemplateEngine templateEngine
     ) {
         this.jHipsterProperties = jHipsterProperties;
         this.javaMailSender = javaMailSender;
+        this.mailDispatcher = mailDispatcher;
         this.messageSource = messageSource;
         this.templateEngine = templateEngine;
     }
 
-    @Async
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
             "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
@@ -69,9 +72,10 @@ public class MailService {
             message.setFrom(jHipsterProperties.getMail().getFrom());
             message.setSubject(subject);
             message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
+            if (mailDispatcher.dispatch(mimeMessage)) {
+                log.debug("Queued email to User '{}'", to);
+            }
+        } catch (MessagingException e) {
             log.warn("Email could not be sent to user '{}'", to, e);
         }
     }
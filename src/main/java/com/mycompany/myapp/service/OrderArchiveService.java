@@ -0,0 +1,253 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.ArchivedOrder;
+import com.mycompany.myapp.repository.EntityChangedEvent;
+import com.mycompany.myapp.repository.OrderArchive;
+import com.mycompany.myapp.repository.OrderRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service moving cold orders out of the database into the {@link OrderArchive}.
+ * <p>
+ * All the orders but the {@code application.archive.hot-orders} most recent ones are archived, by a single instance
+ * at a time holding the {@value #LOCK} {@link JobLock}. Each segment is written and synced to disk first, then, in one
+ * transaction, its orders are deleted if they still have the version they were archived with, and the segment is
+ * recorded in the {@code jhi_order_archive_segment} table. The archive only reads the segments recorded there, so an
+ * order is either in the database or in a committed segment: a segment whose transaction rolled back is deleted,
+ * right away or by the next run.
+ * <p>
+ * Every instance reads the committed segments from {@code application.archive.directory}, which must be on storage
+ * shared by all the instances and surviving them, and evicts the orders from its caches when it reads new ones.
+ */
+@Service
+public class OrderArchiveService {
+    static final String LOCK = "orderArchive";
+
+    private static final Duration LOCK_LEASE = Duration.ofMinutes(30);
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private final OrderRepository orderRepository;
+
+    private final OrderArchive orderArchive;
+
+    private final ApplicationProperties.Archive properties;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final JobLock jobLock;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public OrderArchiveService(
+        OrderRepository orderRepository,
+        OrderArchive orderArchive,
+        ApplicationProperties applicationProperties,
+        ApplicationEventPublisher eventPublisher,
+        JobLock jobLock,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        EntityManagerFactory entityManagerFactory
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderArchive = orderArchive;
+        this.properties = applicationProperties.getArchive();
+        this.eventPublisher = eventPublisher;
+        this.jobLock = jobLock;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Segments committed by the instance running the archival are read by the others within 10 seconds.
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void refreshArchive() {
+        try {
+            refresh(findCommittedSegments());
+        } catch (DataAccessException e) {
+            log.warn("Could not read the committed order archive segments: {}", e.getMessage());
+        } catch (IOException e) {
+            log.error("Could not open the order archive segments", e);
+        }
+    }
+
+    /**
+     * Find an archived order, even if its segment was committed by another instance since the last
+     * {@link #refreshArchive}: when the order isn't in the segments this instance read, and a committed segment covers
+     * its id, the committed segments are read right away.
+     *
+     * @param id the id of the order.
+     * @return the archived order, or empty if it isn't archived.
+     */
+    public Optional<ArchivedOrder> findArchived(Long id) {
+        Optional<ArchivedOrder> order = orderArchive.findById(id);
+        // Segments are committed in id order, so those covering lower ids were read already
+        if (order.isPresent() || id <= orderArchive.getMaxId()) {
+            return order;
+        }
+        Long covering = jdbcTemplate.queryForObject(
+            "select count(*) from jhi_order_archive_segment where first_id <= ? and last_id >= ?",
+            Long.class,
+            id,
+            id
+        );
+        if (covering == null || covering == 0) {
+            return order;
+        }
+        try {
+            refresh(findCommittedSegments());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return orderArchive.findById(id);
+    }
+
+    /**
+     * Cold orders are archived every night, at 02:30 by default.
+     */
+    @Scheduled(cron = "${application.archive.cron:0 30 2 * * ?}")
+    public void archiveColdOrders() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!jobLock.tryLock(LOCK, LOCK_LEASE)) {
+            log.debug("Orders are being archived by another instance");
+            return;
+        }
+        try {
+            List<Long> committed = findCommittedSegments();
+            refresh(committed);
+            orderArchive.deleteUncommitted(committed);
+            Long maxId = orderRepository.findMaxId();
+            if (maxId == null) {
+                return;
+            }
+            long watermark = maxId - properties.getHotOrders();
+            while (orderArchive.getMaxId() < watermark && archiveSegment(watermark)) {
+                if (!jobLock.tryLock(LOCK, LOCK_LEASE)) {
+                    log.warn("Lost the order archival lock, stopping");
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            jobLock.unlock(LOCK);
+        }
+    }
+
+    /**
+     * Archive the next segment of orders.
+     *
+     * @return {@code false} if there was nothing to archive, or if the orders changed while they were archived.
+     */
+    private boolean archiveSegment(long watermark) throws IOException {
+        List<ArchivedOrder> orders = orderRepository.findArchivable(
+            orderArchive.getMaxId(),
+            watermark,
+            PageRequest.of(0, properties.getOrdersPerSegment())
+        );
+        if (orders.isEmpty()) {
+            return false;
+        }
+        long firstId = orderArchive.write(orders);
+        long lastId = orders.get(orders.size() - 1).getId();
+        try {
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                    deleteArchived(orders);
+                    jdbcTemplate.update(
+                        "insert into jhi_order_archive_segment (first_id, last_id, order_count, archived_at) values (?, ?, ?, ?)",
+                        firstId,
+                        lastId,
+                        orders.size(),
+                        Timestamp.from(Instant.now())
+                    );
+                }
+            );
+        } catch (OptimisticLockingFailureException e) {
+            // Rolled back before committing: the segment was never read
+            orderArchive.delete(firstId);
+            log.warn("Orders changed while being archived, they will be archived by the next run: {}", e.getMessage());
+            return false;
+        }
+        // Any other failure leaves the segment to the next run, which deletes it unless the transaction did commit
+        refresh(findCommittedSegments());
+        log.info("Archived {} orders, ids {} to {}", orders.size(), firstId, lastId);
+        return true;
+    }
+
+    /**
+     * Delete the archived orders, by batches of the same version.
+     *
+     * @throws OptimisticLockingFailureException if an order was updated or deleted since it was read.
+     */
+    private void deleteArchived(List<ArchivedOrder> orders) {
+        Map<Long, List<Long>> idsByVersion = new TreeMap<>();
+        for (ArchivedOrder order : orders) {
+            idsByVersion.computeIfAbsent(order.getVersion(), version -> new ArrayList<>()).add(order.getId());
+        }
+        int deleted = 0;
+        for (Map.Entry<Long, List<Long>> entry : idsByVersion.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + DELETE_BATCH_SIZE, ids.size()));
+                deleted += orderRepository.deleteArchived(batch, entry.getKey());
+            }
+        }
+        if (deleted != orders.size()) {
+            throw new OptimisticLockingFailureException((orders.size() - deleted) + " archived orders were updated or deleted");
+        }
+    }
+
+    /**
+     * Read the committed segments, and forget the orders they hold, which are read from the archive from now on.
+     */
+    private void refresh(List<Long> committed) throws IOException {
+        if (orderArchive.refresh(committed)) {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictEntityData(Order.class);
+            cache.evictCollectionData(Customer.class.getName() + ".orders");
+            cache.evictQueryRegion(OrderRepository.ORDER_SUMMARIES_CACHE);
+            eventPublisher.publishEvent(new EntityChangedEvent(Order.class));
+        }
+    }
+
+    private List<Long> findCommittedSegments() {
+        return jdbcTemplate.queryForList("select first_id from jhi_order_archive_segment", Long.class);
+    }
+}
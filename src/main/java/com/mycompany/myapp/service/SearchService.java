@@ -0,0 +1,147 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.jpa.FullTextEntityManager;
+import org.hibernate.search.jpa.FullTextQuery;
+import org.hibernate.search.jpa.Search;
+import org.hibernate.search.query.dsl.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the full-text search of orders and customers.
+ * <p>
+ * The Lucene indexes are embedded and kept up to date by Hibernate Search when transactions commit. Searches only
+ * read identifiers from the index, in relevance order, so callers can fetch the matching rows the way they need.
+ * <p>
+ * The indexes are in the local {@code hibernate.search.default.indexBase} directory of each instance, which only sees
+ * the writes it commits itself: with several instances, their indexes diverge, and {@link #reindex} only rebuilds the
+ * one of the instance it runs on. Orders moved to the {@link com.mycompany.myapp.repository.OrderArchive} stay in the
+ * index, which is the only place they can be searched from.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SearchService {
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    private final EntityManager entityManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SearchService(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Search the orders by product.
+     *
+     * @param query the query, in the Lucene simple query string syntax.
+     * @param pageable the pagination information, sorting is ignored as results are ordered by relevance.
+     * @return the page of matching order ids.
+     */
+    public Page<Long> searchOrderIds(String query, Pageable pageable) {
+        log.debug("Request to search Orders for query {}", query);
+        return searchIds(Order.class, "product", query, pageable);
+    }
+
+    /**
+     * Search the customers by name.
+     *
+     * @param query the query, in the Lucene simple query string syntax.
+     * @param pageable the pagination information, sorting is ignored as results are ordered by relevance.
+     * @return the page of matching customer ids.
+     */
+    public Page<Long> searchCustomerIds(String query, Pageable pageable) {
+        log.debug("Request to search Customers for query {}", query);
+        return searchIds(Customer.class, "name", query, pageable);
+    }
+
+    /**
+     * Rebuild the order and customer indexes from the database.
+     * <p>
+     * This is needed when rows are written without Hibernate, for instance by Liquibase or bulk loads. The order index
+     * isn't purged, as it also holds the archived orders: only the documents of the orders in the database are replaced.
+     */
+    @Async
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reindex() {
+        reindexAndWait();
+    }
+
+    /**
+     * Rebuild the order and customer indexes from the database, like {@link #reindex}, in the calling thread.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reindexAndWait() {
+        log.info("Rebuilding the search indexes");
+        FullTextEntityManager fullTextEntityManager = Search.getFullTextEntityManager(entityManagerFactory.createEntityManager());
+        try {
+            purgeOrders(fullTextEntityManager);
+            fullTextEntityManager.createIndexer(Order.class).purgeAllOnStart(false).startAndWait();
+            fullTextEntityManager.createIndexer(Customer.class).startAndWait();
+            log.info("Search indexes rebuilt");
+        } catch (InterruptedException e) {
+            log.warn("Search indexes rebuild interrupted");
+            Thread.currentThread().interrupt();
+        } finally {
+            fullTextEntityManager.close();
+        }
+    }
+
+    /**
+     * Purge the documents of the orders in the database, by batches of ids, as the mass indexer would otherwise add
+     * duplicates.
+     */
+    private void purgeOrders(FullTextEntityManager fullTextEntityManager) {
+        long lastId = 0;
+        List<Long> ids;
+        do {
+            fullTextEntityManager.getTransaction().begin();
+            ids =
+                fullTextEntityManager
+                    .createQuery("select o.id from Order o where o.id > :lastId order by o.id", Long.class)
+                    .setParameter("lastId", lastId)
+                    .setMaxResults(PURGE_BATCH_SIZE)
+                    .getResultList();
+            ids.forEach(id -> fullTextEntityManager.purge(Order.class, id));
+            fullTextEntityManager.getTransaction().commit();
+            if (!ids.isEmpty()) {
+                lastId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == PURGE_BATCH_SIZE);
+    }
+
+    private Page<Long> searchIds(Class<?> entityClass, String field, String query, Pageable pageable) {
+        FullTextEntityManager fullTextEntityManager = Search.getFullTextEntityManager(entityManager);
+        QueryBuilder queryBuilder = fullTextEntityManager.getSearchFactory().buildQueryBuilder().forEntity(entityClass).get();
+        org.apache.lucene.search.Query luceneQuery = queryBuilder
+            .simpleQueryString()
+            .onField(field)
+            .withAndAsDefaultOperator()
+            .matching(query)
+            .createQuery();
+        FullTextQuery fullTextQuery = fullTextEntityManager.createFullTextQuery(luceneQuery, entityClass);
+        fullTextQuery.setProjection(FullTextQuery.ID);
+        fullTextQuery.setFirstResult((int) pageable.getOffset());
+        fullTextQuery.setMaxResults(pageable.getPageSize());
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = fullTextQuery.getResultList();
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        return new PageImpl<>(ids, pageable, fullTextQuery.getResultSize());
+    }
+}
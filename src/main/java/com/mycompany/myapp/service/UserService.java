@@ -4,8 +4,10 @@ import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.UserCache;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.CachingAuthenticationProvider;
 import com.mycompany.myapp.security.SecurityUtils;
 import com.mycompany.myapp.service.dto.UserDTO;
 import io.github.jhipster.security.RandomUtil;
@@ -15,12 +17,17 @@ import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -29,10 +36,14 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @Transactional
 public class UserService {
+    public static final String ACCOUNT_PROFILES_CACHE = "accountProfiles";
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
 
+    private final UserCache userCache;
+
     private final PasswordEncoder passwordEncoder;
 
     private final AuthorityRepository authorityRepository;
@@ -41,11 +52,13 @@ public class UserService {
 
     public UserService(
         UserRepository userRepository,
+        UserCache userCache,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
         CacheManager cacheManager
     ) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
@@ -294,12 +307,113 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
-        return userRepository.findOneWithAuthoritiesByLogin(login);
+        return userCache.findOneWithAuthoritiesByLogin(login);
     }
 
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthorities() {
-        return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
+        return SecurityUtils.getCurrentUserLogin().flatMap(userCache::findOneWithAuthoritiesByLogin);
+    }
+
+    /**
+     * Get the profile of the current user, without a database access when it is cached. Otherwise, the claims of the
+     * JWT of the user, see {@code application.security.profile-claims}, are used if they are still current: their
+     * last modified date is checked against the database, which is cheaper than reading the user and its authorities.
+     * <p>
+     * Without a transaction, a cache hit doesn't take a database connection.
+     *
+     * @return the profile of the current user.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<UserDTO> getCurrentUserProfile() {
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        if (!login.isPresent()) {
+            return Optional.empty();
+        }
+        UserDTO cached = accountProfilesCache().get(login.get(), UserDTO.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getDetails() instanceof Map && isCurrent(login.get(), (Map<?, ?>) authentication.getDetails())) {
+            UserDTO profile = fromProfileClaims(authentication, (Map<?, ?>) authentication.getDetails());
+            accountProfilesCache().put(login.get(), profile);
+            return Optional.of(profile);
+        }
+        return getUserProfile(login.get());
+    }
+
+    private boolean isCurrent(String login, Map<?, ?> claims) {
+        Instant claimed = toInstant(claims.get("lastModifiedDate"));
+        // The claims are in milliseconds
+        return (
+            claimed != null &&
+            userRepository.findLastModifiedDateByLogin(login).filter(date -> date.toEpochMilli() == claimed.toEpochMilli()).isPresent()
+        );
+    }
+
+    /**
+     * Get the profile of a user, and cache it for {@link #getCurrentUserProfile()}.
+     *
+     * @param login the login of the user.
+     * @return the profile of the user.
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserDTO> getUserProfile(String login) {
+        Cache accountProfiles = accountProfilesCache();
+        UserDTO cached = accountProfiles.get(login, UserDTO.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<UserDTO> profile = userCache.findOneWithAuthoritiesByLogin(login).map(UserDTO::new);
+        profile.ifPresent(loaded -> accountProfiles.put(login, loaded));
+        return profile;
+    }
+
+    /**
+     * Get the profile claims of a user, for {@link com.mycompany.myapp.security.jwt.TokenProvider#createToken}. The
+     * authorities are already in the token.
+     *
+     * @param profile the profile of the user.
+     * @return the profile claims.
+     */
+    public static Map<String, Object> toProfileClaims(UserDTO profile) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("id", profile.getId());
+        claims.put("firstName", profile.getFirstName());
+        claims.put("lastName", profile.getLastName());
+        claims.put("email", profile.getEmail());
+        claims.put("imageUrl", profile.getImageUrl());
+        claims.put("activated", profile.isActivated());
+        claims.put("langKey", profile.getLangKey());
+        claims.put("createdBy", profile.getCreatedBy());
+        claims.put("createdDate", profile.getCreatedDate() != null ? profile.getCreatedDate().toEpochMilli() : null);
+        claims.put("lastModifiedBy", profile.getLastModifiedBy());
+        claims.put("lastModifiedDate", profile.getLastModifiedDate() != null ? profile.getLastModifiedDate().toEpochMilli() : null);
+        claims.values().removeIf(Objects::isNull);
+        return claims;
+    }
+
+    private static UserDTO fromProfileClaims(Authentication authentication, Map<?, ?> claims) {
+        UserDTO profile = new UserDTO();
+        profile.setId(claims.get("id") instanceof Number ? ((Number) claims.get("id")).longValue() : null);
+        profile.setLogin(authentication.getName());
+        profile.setFirstName((String) claims.get("firstName"));
+        profile.setLastName((String) claims.get("lastName"));
+        profile.setEmail((String) claims.get("email"));
+        profile.setImageUrl((String) claims.get("imageUrl"));
+        profile.setActivated(Boolean.TRUE.equals(claims.get("activated")));
+        profile.setLangKey((String) claims.get("langKey"));
+        profile.setCreatedBy((String) claims.get("createdBy"));
+        profile.setCreatedDate(toInstant(claims.get("createdDate")));
+        profile.setLastModifiedBy((String) claims.get("lastModifiedBy"));
+        profile.setLastModifiedDate(toInstant(claims.get("lastModifiedDate")));
+        profile.setAuthorities(authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+        return profile;
+    }
+
+    private static Instant toInstant(Object epochMilli) {
+        return epochMilli instanceof Number ? Instant.ofEpochMilli(((Number) epochMilli).longValue()) : null;
     }
 
     /**
@@ -330,9 +444,16 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        userCache.evict(user);
+        Cache verifiedCredentials = Objects.requireNonNull(cacheManager.getCache(CachingAuthenticationProvider.VERIFIED_CREDENTIALS_CACHE));
+        verifiedCredentials.evict(user.getLogin());
         if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            verifiedCredentials.evict(user.getEmail());
         }
+        accountProfilesCache().evict(user.getLogin());
+    }
+
+    private Cache accountProfilesCache() {
+        return Objects.requireNonNull(cacheManager.getCache(ACCOUNT_PROFILES_CACHE));
     }
 }
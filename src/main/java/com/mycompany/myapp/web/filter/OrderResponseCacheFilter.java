@@ -0,0 +1,233 @@
+package com.mycompany.myapp.web.filter;
+
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.EntityChangedEvent;
+import com.mycompany.myapp.repository.OrderRepository;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Filter caching the encoded responses of {@code GET /api/orders/:id}, so that hot orders are neither read, nor given
+ * their controls, nor serialized again until they are written.
+ * <p>
+ * Responses are cached per order and {@code Accept} header in the {@code orderResponses} region, with all their
+ * headers. The responses of a written order are evicted when it is written and again once the write is committed, and
+ * those of all the orders of a written customer, which they include, once it is committed. Bulk writes, like the
+ * archival of orders, evict them all. A response read while a write was committed isn't cached, as it may have been
+ * read before it.
+ * <p>
+ * Responses have the {@code ETag} set by {@link com.mycompany.myapp.web.rest.OrderResource}, or else a digest of their
+ * body, so conditional requests get a {@code 304 (Not Modified)}. Other requests and responses go through unchanged.
+ * The security filters are skipped for {@code /api/orders/**}, so responses don't depend on the user.
+ */
+@Component
+public class OrderResponseCacheFilter extends OncePerRequestFilter {
+    public static final String ORDER_RESPONSES_CACHE = "orderResponses";
+
+    private static final Pattern ORDER_PATH = Pattern.compile("/api/orders/(\\d+)");
+
+    private static final int MAX_REPRESENTATIONS = 8;
+
+    private final CacheManager cacheManager;
+
+    private final OrderRepository orderRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong writes = new AtomicLong();
+
+    public OrderResponseCacheFilter(
+        CacheManager cacheManager,
+        OrderRepository orderRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.cacheManager = cacheManager;
+        this.orderRepository = orderRepository;
+        // The transaction of the write is over
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Evict the responses of a written order, so that the transaction of the write doesn't read them.
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntity() instanceof Order) {
+            writes.incrementAndGet();
+            cacheManager.getCache(ORDER_RESPONSES_CACHE).remove(((Order) event.getEntity()).getId());
+        }
+    }
+
+    /**
+     * Evict the responses of the written orders once the write is committed. The orders of a written customer are read
+     * from the database, in a transaction of their own.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void afterEntityChanged(EntityChangedEvent event) {
+        if (event.getEntityType() != Order.class && event.getEntityType() != Customer.class) {
+            return;
+        }
+        // Before evicting, so that the responses being read are either evicted or not cached
+        writes.incrementAndGet();
+        Cache<Object, Object> cache = cacheManager.getCache(ORDER_RESPONSES_CACHE);
+        Object entity = event.getEntity();
+        if (entity instanceof Order) {
+            cache.remove(((Order) entity).getId());
+        } else if (entity instanceof Customer) {
+            Long customerId = ((Customer) entity).getId();
+            cache.removeAll(new HashSet<>(transactionTemplate.execute(status -> orderRepository.findIdsByCustomerId(customerId))));
+        } else {
+            cache.clear();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !ORDER_PATH.matcher(path(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        Cache<Object, Object> cache = cacheManager.getCache(ORDER_RESPONSES_CACHE);
+        Matcher matcher = ORDER_PATH.matcher(path(request));
+        Long id = matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+        String accept = request.getHeader(HttpHeaders.ACCEPT) != null ? request.getHeader(HttpHeaders.ACCEPT) : "";
+        Object cached = cache.get(id);
+        CachedResponses responses = cached instanceof CachedResponses ? (CachedResponses) cached : new CachedResponses();
+        CachedResponse cachedResponse = responses.get(accept);
+        if (cachedResponse != null) {
+            write(cachedResponse, request, response);
+            return;
+        }
+
+        long writesBefore = writes.get();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() != HttpStatus.OK.value() || wrapper.containsHeader(HttpHeaders.SET_COOKIE)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getHeader(HttpHeaders.ETAG) == null) {
+            wrapper.setHeader(HttpHeaders.ETAG, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        }
+        cachedResponse = new CachedResponse(body, wrapper.getContentType(), headers(wrapper));
+        if (writes.get() == writesBefore) {
+            cache.put(id, responses.with(accept, cachedResponse));
+            if (writes.get() != writesBefore) {
+                // A write was committed meanwhile, and evicted the order before it was cached
+                cache.remove(id);
+            }
+        }
+        if (!checkNotModified(cachedResponse, request, wrapper)) {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        cached.headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (checkNotModified(cached, request, response)) {
+            return;
+        }
+        response.setContentType(cached.contentType);
+        response.setContentLength(cached.body.length);
+        response.getOutputStream().write(cached.body);
+    }
+
+    private static boolean checkNotModified(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) {
+        return new ServletWebRequest(request, response).checkNotModified(cached.headers.getETag(), cached.headers.getLastModified());
+    }
+
+    /**
+     * Copy the headers of a response, but those of its body, which are set when it is written.
+     */
+    private static HttpHeaders headers(HttpServletResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : response.getHeaderNames()) {
+            headers.put(name, new ArrayList<>(response.getHeaders(name)));
+        }
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        return headers;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * The responses of an order, per {@code Accept} header.
+     */
+    private static final class CachedResponses implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, CachedResponse> responses;
+
+        private CachedResponses() {
+            this(Map.of());
+        }
+
+        private CachedResponses(Map<String, CachedResponse> responses) {
+            this.responses = responses;
+        }
+
+        private CachedResponse get(String accept) {
+            return responses.get(accept);
+        }
+
+        private CachedResponses with(String accept, CachedResponse response) {
+            // Clients send few different Accept headers, but they are free text
+            Map<String, CachedResponse> copy = responses.size() < MAX_REPRESENTATIONS ? new HashMap<>(responses) : new HashMap<>();
+            copy.put(accept, response);
+            return new CachedResponses(copy);
+        }
+    }
+
+    /**
+     * Stored serialized when the region has an off-heap tier.
+     */
+    private static final class CachedResponse implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] body;
+        private final String contentType;
+        private final HttpHeaders headers;
+
+        private CachedResponse(byte[] body, String contentType, HttpHeaders headers) {
+            this.body = body;
+            this.contentType = contentType;
+            this.headers = headers;
+        }
+    }
+}
@@ -99,10 +99,7 @@ public class AccountResource {
      */
     @GetMapping("/account")
     public UserDTO getAccount() {
-        return userService
-            .getUserWithAuthorities()
-            .map(UserDTO::new)
-            .orElseThrow(() -> new AccountResourceException("User could not be found"));
+        return userService.getCurrentUserProfile().orElseThrow(() -> new AccountResourceException("User could not be found"));
     }
 
     /**
@@ -0,0 +1,93 @@
+package com.mycompany.myapp.web.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Answers conditional {@code GET} requests before their response is built.
+ * <p>
+ * A single entity has its version as a weak {@code ETag}, as the JSON and OHM representations of a version differ, and a
+ * list has the last modification time of its tables, shared by all the instances, from
+ * {@link com.mycompany.myapp.repository.ModificationStamps}, and its URL and query parameters as a weak {@code ETag},
+ * so that each page, sort and filter has its own. When the request doesn't match, these headers are set on the response.
+ * <p>
+ * Both have the last modification time as {@code Last-Modified}, rounded up to the second of HTTP dates. It is only
+ * sent once that second is over: a later write in the same second would otherwise round to the same date.
+ */
+final class ConditionalGet {
+    private ConditionalGet() {}
+
+    /**
+     * Check the {@code If-None-Match} and {@code If-Modified-Since} headers for an entity.
+     *
+     * @param request the request, which gets a {@code 304 (Not Modified)} status if it matches.
+     * @param version the version of the entity, or {@code null} if it has none.
+     * @param lastModified the last modification time of the table of the entity.
+     * @return {@code true} if the request matches, in which case the controller returns no body.
+     */
+    static boolean isEntityNotModified(WebRequest request, Long version, long lastModified) {
+        long httpDate = toHttpDate(lastModified);
+        return version != null ? request.checkNotModified(eTag(version), httpDate) : request.checkNotModified(httpDate);
+    }
+
+    /**
+     * Get the {@code ETag} of an entity, which is also sent by the requests writing it.
+     *
+     * @param version the version of the entity.
+     * @return the weak {@code ETag} of this version.
+     */
+    static String eTag(Long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * Parse the {@code If-Match} header of a write, which may hold the weak or strong {@code ETag} of an entity.
+     *
+     * @param ifMatch the {@code If-Match} header.
+     * @return the expected version of the entity, or {@code null} for {@code *}.
+     * @throws ResponseStatusException with status {@code 412 (Precondition Failed)} if the header holds no version.
+     */
+    static Long parseVersion(String ifMatch) {
+        if ("*".equals(ifMatch)) {
+            return null;
+        }
+        String version = ifMatch.startsWith("W/") ? ifMatch.substring(2) : ifMatch;
+        try {
+            return Long.valueOf(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Invalid If-Match header");
+        }
+    }
+
+    /**
+     * Check the {@code If-None-Match} and {@code If-Modified-Since} headers for a list of entities.
+     *
+     * @param request the request, which gets a {@code 304 (Not Modified)} status if it matches.
+     * @param lastModified the last modification time of the tables of the list.
+     * @return {@code true} if the request matches, in which case the controller returns no body.
+     */
+    static boolean isListNotModified(WebRequest request, long lastModified) {
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        StringBuilder query = new StringBuilder(request.getDescription(false));
+        parameters.forEach((name, values) -> query.append('&').append(name).append('=').append(Arrays.toString(values)));
+        String eTag = "W/\"" + lastModified + "-" + DigestUtils.md5DigestAsHex(query.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return request.checkNotModified(eTag, toHttpDate(lastModified));
+    }
+
+    /**
+     * Round a modification time up to the second, as HTTP dates have no milliseconds.
+     *
+     * @param lastModified the modification time, in milliseconds.
+     * @return the rounded time, or {@code -1} if its second isn't over yet.
+     */
+    static long toHttpDate(long lastModified) {
+        long httpDate = (lastModified + 999) / 1000 * 1000;
+        return httpDate <= System.currentTimeMillis() ? httpDate : -1;
+    }
+}
@@ -1,29 +1,50 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.domain.Customer;
 import com.mycompany.myapp.repository.CustomerRepository;
+import com.mycompany.myapp.repository.ModificationStamps;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.SearchService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import io.github.jhipster.web.util.HeaderUtil;
+import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Customer}.
@@ -41,8 +62,22 @@ public class CustomerResource {
 
     private final CustomerRepository customerRepository;
 
-    public CustomerResource(CustomerRepository customerRepository) {
+    private final SearchService searchService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ModificationStamps modificationStamps;
+
+    public CustomerResource(
+        CustomerRepository customerRepository,
+        SearchService searchService,
+        ObjectMapper objectMapper,
+        ModificationStamps modificationStamps
+    ) {
         this.customerRepository = customerRepository;
+        this.searchService = searchService;
+        this.objectMapper = objectMapper;
+        this.modificationStamps = modificationStamps;
     }
 
     /**
@@ -81,6 +116,9 @@ public class CustomerResource {
         if (customer.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        if (customer.getVersion() == null) {
+            customerRepository.findById(customer.getId()).map(Customer::getVersion).ifPresent(customer::setVersion);
+        }
         Customer result = customerRepository.save(customer);
         return ResponseEntity
             .ok()
@@ -88,27 +126,104 @@ public class CustomerResource {
             .body(result);
     }
 
+    /**
+     * {@code PATCH  /customers/:id} : Partially updates an existing customer with a JSON Merge Patch.
+     * <p>
+     * As {@link Customer} uses dynamic updates, only the columns which actually changed are written.
+     *
+     * @param id      the id of the customer to update.
+     * @param patch   the JSON Merge Patch to apply to the customer.
+     * @param ifMatch the optional {@code If-Match} header holding the expected version of the customer.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated customer,
+     * or with status {@code 400 (Bad Request)} if the patch is not valid,
+     * or with status {@code 404 (Not Found)} if the customer doesn't exist,
+     * or with status {@code 412 (Precondition Failed)} if the customer was modified in the meantime.
+     */
+    @Secured(AuthoritiesConstants.ADMIN)
+    @PatchMapping(path = "/customers/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public ResponseEntity<Customer> patchCustomer(
+        @PathVariable Long id,
+        @RequestBody JsonNode patch,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.debug("REST request to patch Customer : {}, {}", id, patch);
+        Customer customer = customerRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        Long expectedVersion = ifMatch != null ? ConditionalGet.parseVersion(ifMatch) : null;
+        if (expectedVersion != null && !expectedVersion.equals(customer.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Customer was modified concurrently");
+        }
+        Customer patched;
+        try {
+            patched = objectMapper.treeToValue(JsonMergePatch.apply(objectMapper.valueToTree(customer), patch), Customer.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid merge patch", ENTITY_NAME, "patchinvalid");
+        }
+        customer.setName(patched.getName());
+        Customer result = customerRepository.saveAndFlush(customer);
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalGet.eTag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+            .body(result);
+    }
+
     /**
      * {@code GET  /customers} : get all the customers.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body.
+     * @param webRequest the request, to check if the customers changed since the client got them.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body,
+     * or {@code null} with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/customers")
-    public List<Customer> getAllCustomers() {
+    public List<Customer> getAllCustomers(WebRequest webRequest) {
         log.debug("REST request to get all Customers");
+        if (ConditionalGet.isListNotModified(webRequest, modificationStamps.getLastModified(Customer.class))) {
+            return null;
+        }
         return customerRepository.findAll();
     }
 
+    /**
+     * {@code GET  /customers/search?q=:query} : search the customers by name.
+     *
+     * @param q the query, in the Lucene simple query string syntax.
+     * @param pageable the pagination information, results are sorted by relevance.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching customers in body.
+     */
+    @GetMapping("/customers/search")
+    public ResponseEntity<List<Customer>> searchCustomers(@RequestParam String q, Pageable pageable) {
+        log.debug("REST request to search for a page of Customers for query {}", q);
+        Page<Long> ids = searchService.searchCustomerIds(q, pageable);
+        Map<Long, Customer> customers = ids.isEmpty()
+            ? Map.of()
+            : customerRepository.findAllById(ids.getContent()).stream().collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Page<Customer> page = new PageImpl<>(
+            ids.stream().map(customers::get).filter(Objects::nonNull).collect(Collectors.toList()),
+            pageable,
+            ids.getTotalElements()
+        );
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     /**
      * {@code GET  /customers/:id} : get the "id" customer.
      *
      * @param id the id of the customer to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the customer, or with status {@code 404 (Not Found)}.
+     * @param webRequest the request, to check the version of the customer before building the response.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the customer, or with status {@code 404 (Not Found)},
+     * or {@code null} with status {@code 304 (Not Modified)}. The version of the customer is its {@code ETag}.
      */
     @GetMapping("/customers/{id}")
-    public ResponseEntity<Customer> getCustomer(@PathVariable Long id) {
+    public ResponseEntity<Customer> getCustomer(@PathVariable Long id, WebRequest webRequest) {
         log.debug("REST request to get Customer : {}", id);
         Optional<Customer> customer = customerRepository.findById(id);
+        if (
+            customer.isPresent() &&
+            ConditionalGet.isEntityNotModified(webRequest, customer.get().getVersion(), modificationStamps.getLastModified(Customer.class))
+        ) {
+            return null;
+        }
         return ResponseUtil.wrapOrNotFound(customer);
     }
 
@@ -1,16 +1,22 @@
 package com.mycompany.myapp.web.rest;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.domain.Customer;
 import java.io.IOException;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 
@@ -34,30 +40,76 @@ public class CustomerRestResource {
     /**
      * {@code GET  /customers} : get all the customers.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body.
+     * @param webRequest the request, to check if the customers changed since the client got them.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body,
+     * or {@code null} with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/customers")
-    public RestResponse<List<Customer>> getAllCustomers() throws IOException {
-        final List<Customer> customers = customerResource.getAllCustomers();
+    public RestResponse<List<Customer>> getAllCustomers(WebRequest webRequest) throws IOException {
+        final List<Customer> customers = customerResource.getAllCustomers(webRequest);
+        if (customers == null) {
+            return null;
+        }
         Context context = new Context();
         context.setVariable("customers", customers);
         String content = templateEngine.process("oai/customers.json", context);
         return new RestResponse<>(customers, mapper.readTree(content));
     }
 
+    /**
+     * {@code GET  /customers/search?q=:query} : search the customers by name.
+     *
+     * @param q the query, in the Lucene simple query string syntax.
+     * @param pageable the pagination information, results are sorted by relevance.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching customers in body.
+     */
+    @GetMapping("/customers/search")
+    public ResponseEntity<RestResponse<List<Customer>>> searchCustomers(@RequestParam String q, Pageable pageable) throws IOException {
+        final ResponseEntity<List<Customer>> response = customerResource.searchCustomers(q, pageable);
+        Context context = new Context();
+        context.setVariable("customers", response.getBody());
+        String content = templateEngine.process("oai/customers.json", context);
+        return RestResponse.wrapResponse(response, mapper.readTree(content));
+    }
+
     /**
      * {@code GET  /customers/:id} : get the "id" customer.
      *
      * @param id the id of the customer to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the customer, or with status {@code 404 (Not Found)}.
+     * @param webRequest the request, to check the version of the customer before building the response.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the customer, or with status {@code 404 (Not Found)},
+     * or {@code null} with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/customers/{id}")
-    public ResponseEntity<RestResponse<Customer>> getCustomer(@PathVariable Long id) throws JsonProcessingException {
-        final ResponseEntity<Customer> response = customerResource.getCustomer(id);
+    public ResponseEntity<RestResponse<Customer>> getCustomer(@PathVariable Long id, WebRequest webRequest) throws JsonProcessingException {
+        final ResponseEntity<Customer> response = customerResource.getCustomer(id, webRequest);
+        if (response == null) {
+            return null;
+        }
         final Customer customer = response.getBody();
         Context context = new Context();
         context.setVariable("customer", customer);
         String content = templateEngine.process("oai/customer.json", context);
         return RestResponse.wrapResponse(response, mapper.readTree(content));
     }
+
+    /**
+     * {@code PATCH  /customers/:id} : Partially updates an existing customer with a JSON Merge Patch, as advertised by
+     * the controls of {@link #getCustomer}.
+     *
+     * @param id    the id of the customer to update.
+     * @param patch the JSON Merge Patch to apply to the customer.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated customer,
+     * or with status {@code 400 (Bad Request)} if the patch is not valid,
+     * or with status {@code 404 (Not Found)} if the customer doesn't exist.
+     */
+    @PatchMapping(path = "/customers/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public ResponseEntity<RestResponse<Customer>> patchCustomer(@PathVariable Long id, @RequestBody JsonNode patch)
+        throws JsonProcessingException {
+        final ResponseEntity<Customer> response = customerResource.patchCustomer(id, patch);
+        Context context = new Context();
+        context.setVariable("customer", response.getBody());
+        String content = templateEngine.process("oai/customer.json", context);
+        return RestResponse.wrapResponse(response, mapper.readTree(content));
+    }
 }
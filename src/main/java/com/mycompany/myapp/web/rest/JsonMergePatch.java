@@ -0,0 +1,40 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Implementation of <a href="https://tools.ietf.org/html/rfc7396">RFC 7396 JSON Merge Patch</a>.
+ */
+public final class JsonMergePatch {
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private JsonMergePatch() {}
+
+    /**
+     * Apply a merge patch to a JSON document.
+     *
+     * @param target the document to patch, left unmodified.
+     * @param patch the merge patch.
+     * @return the patched document.
+     */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject() ? ((ObjectNode) target).deepCopy() : JsonNodeFactory.instance.objectNode();
+        patch
+            .fields()
+            .forEachRemaining(
+                field -> {
+                    if (field.getValue().isNull()) {
+                        result.remove(field.getKey());
+                    } else {
+                        result.set(field.getKey(), apply(result.get(field.getKey()), field.getValue()));
+                    }
+                }
+            );
+        return result;
+    }
+}
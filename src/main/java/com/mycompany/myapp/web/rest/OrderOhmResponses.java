@@ -0,0 +1,149 @@
+package com.mycompany.myapp.web.rest;
+
+import static com.mycompany.myapp.web.rest.OhmResponse.control;
+import static io.swagger.v3.oas.models.PathItem.HttpMethod.DELETE;
+import static io.swagger.v3.oas.models.PathItem.HttpMethod.GET;
+import static io.swagger.v3.oas.models.PathItem.HttpMethod.PATCH;
+import static io.swagger.v3.oas.models.PathItem.HttpMethod.POST;
+import static io.swagger.v3.oas.models.PathItem.HttpMethod.PUT;
+
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.OrderSummary;
+import com.mycompany.myapp.web.rest.OhmResponse.ControlBuilder;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.IntegerSchema;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.NumberSchema;
+import io.swagger.v3.oas.models.media.ObjectSchema;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import springfox.documentation.oas.mappers.ServiceModelToOpenApiMapper;
+import springfox.documentation.service.Documentation;
+import springfox.documentation.spring.web.DocumentationCache;
+import springfox.documentation.spring.web.plugins.Docket;
+
+/**
+ * Builds the OHM responses of the order endpoints, shared by {@link OrderResource} and {@link ReactiveOrderResource}.
+ */
+@Component
+class OrderOhmResponses {
+    private final DocumentationCache documentationCache;
+    private final ServiceModelToOpenApiMapper mapper;
+
+    private OpenAPI openAPI;
+
+    OrderOhmResponses(DocumentationCache documentationCache, ServiceModelToOpenApiMapper mapper) {
+        this.documentationCache = documentationCache;
+        this.mapper = mapper;
+    }
+
+    OhmResponse<Order> getOrderResponse(Order order) {
+        return getOrderResponse(order, false);
+    }
+
+    OhmResponse<Order> getOrderResponse(Order order, boolean archived) {
+        OpenAPI openAPI = getSpringfoxOpenAPI();
+        OhmResponse<Order> ohmResponse = OhmResponse.of(order);
+        if (archived) {
+            // Archived orders are read-only
+            return addOrderNavigationControls(ohmResponse, order);
+        }
+
+        var orderSchema = new ObjectSchema()
+            .addProperties("cost", new NumberSchema().example(order.getCost()))
+            .addProperties(
+                "customer",
+                new ObjectSchema()
+                .addProperties("id", new IntegerSchema().example(order.getCustomer() != null ? order.getCustomer().getId() : null))
+            );
+
+        var requestBody = new io.swagger.v3.oas.models.parameters.RequestBody()
+        .content(new Content().addMediaType("application/json", new MediaType().schema(orderSchema)));
+
+        ohmResponse.addControl(
+            control(openAPI, PUT, "/api/orders/{id}")
+                .parameter("id", order.getId())
+                .requestBody(requestBody)
+                .summary(String.format("Update order %d", order.getId()))
+        );
+
+        var patchRequestBody = new io.swagger.v3.oas.models.parameters.RequestBody()
+        .content(new Content().addMediaType(JsonMergePatch.MEDIA_TYPE, new MediaType().schema(orderSchema)));
+
+        ohmResponse.addControl(
+            control(openAPI, PATCH, "/api/orders/{id}")
+                .parameter("id", order.getId())
+                .requestBody(patchRequestBody)
+                .summary(String.format("Patch order %d", order.getId()))
+        );
+        if (order.getId() > 100) {
+            ohmResponse.addControl(
+                control(openAPI, DELETE, "/api/orders/{id}")
+                    .parameter("id", order.getId())
+                    .summary(String.format("Delete order %d", order.getId()))
+            );
+        }
+        return addOrderNavigationControls(ohmResponse, order);
+    }
+
+    private OhmResponse<Order> addOrderNavigationControls(OhmResponse<Order> ohmResponse, Order order) {
+        OpenAPI openAPI = getSpringfoxOpenAPI();
+        if (order.getCustomer() != null) {
+            ohmResponse.addControl(
+                control(openAPI, GET, "/api/customers/{id}")
+                    .parameter("id", order.getCustomer().getId())
+                    .summary(String.format("Get order %d customer (%d)", order.getId(), order.getCustomer().getId()))
+            );
+        }
+        return ohmResponse.addControl(control(openAPI, GET, "/api/orders").summary("Get all orders"));
+    }
+
+    OhmResponse<List<OrderSummary>> getOrdersResponse(Page<OrderSummary> page, boolean showCreateControl) {
+        return getOrdersResponse(page, control(getSpringfoxOpenAPI(), GET, "/api/orders").summary("Get orders"), showCreateControl);
+    }
+
+    OhmResponse<List<OrderSummary>> getOrdersResponse(
+        Page<OrderSummary> page,
+        ControlBuilder paginationControl,
+        boolean showCreateControl
+    ) {
+        OpenAPI openAPI = getSpringfoxOpenAPI();
+        OhmResponse<List<OrderSummary>> ohmResponse = OhmResponse
+            .of(page.getContent())
+            .addControl(control(openAPI, GET, "/api").summary("Go to home"))
+            .addPaginationControls(paginationControl, page);
+
+        page
+            .get()
+            .forEach(
+                order ->
+                    ohmResponse.addControl(
+                        control(openAPI, GET, "/api/orders/{id}")
+                            .parameter("id", order.getId())
+                            .summary(String.format("Get order %d", order.getId()))
+                    )
+            );
+
+        if (showCreateControl) {
+            if (page.getTotalElements() < 200) {
+                var orderSchema = new ObjectSchema()
+                    .addProperties("cost", new NumberSchema())
+                    .addProperties("customer", new ObjectSchema().addProperties("id", new IntegerSchema()));
+                var requestBody = new io.swagger.v3.oas.models.parameters.RequestBody()
+                .content(new Content().addMediaType("application/ohm+json", new MediaType().schema(orderSchema)));
+                ohmResponse.addControl(control(openAPI, POST, "/api/orders").requestBody(requestBody).summary("Create order"));
+            }
+        }
+        return ohmResponse;
+    }
+
+    OpenAPI getSpringfoxOpenAPI() {
+        if (openAPI == null) {
+            Documentation documentation = documentationCache.documentationByGroup(Docket.DEFAULT_GROUP_NAME);
+            openAPI = mapper.mapDocumentation(documentation);
+        }
+        return openAPI;
+    }
+}
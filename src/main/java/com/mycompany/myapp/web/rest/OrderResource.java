@@ -1,31 +1,40 @@
 package com.mycompany.myapp.web.rest;
 
 import static com.mycompany.myapp.web.rest.OhmResponse.control;
-import static io.swagger.v3.oas.models.PathItem.HttpMethod.DELETE;
 import static io.swagger.v3.oas.models.PathItem.HttpMethod.GET;
-import static io.swagger.v3.oas.models.PathItem.HttpMethod.POST;
-import static io.swagger.v3.oas.models.PathItem.HttpMethod.PUT;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.javafaker.Faker;
+import com.mycompany.myapp.domain.Customer;
 import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.ArchivedOrder;
+import com.mycompany.myapp.repository.ModificationStamps;
+import com.mycompany.myapp.repository.OrderArchive;
 import com.mycompany.myapp.repository.OrderRepository;
+import com.mycompany.myapp.repository.OrderSummary;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.OrderArchiveService;
+import com.mycompany.myapp.service.SearchService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.PaginationUtil;
 import io.swagger.v3.oas.models.OpenAPI;
-import io.swagger.v3.oas.models.media.Content;
-import io.swagger.v3.oas.models.media.IntegerSchema;
-import io.swagger.v3.oas.models.media.MediaType;
-import io.swagger.v3.oas.models.media.NumberSchema;
-import io.swagger.v3.oas.models.media.ObjectSchema;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -34,18 +43,18 @@ import org.springframework.security.access.annotation.Secured;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
-import springfox.documentation.oas.mappers.ServiceModelToOpenApiMapper;
-import springfox.documentation.service.Documentation;
-import springfox.documentation.spring.web.DocumentationCache;
-import springfox.documentation.spring.web.plugins.Docket;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Order}.
@@ -62,15 +71,29 @@ public class OrderResource {
     private String applicationName;
 
     private final OrderRepository orderRepository;
-    private final DocumentationCache documentationCache;
-    private final ServiceModelToOpenApiMapper mapper;
+    private final OrderArchive orderArchive;
+    private final OrderArchiveService orderArchiveService;
+    private final SearchService searchService;
+    private final OrderOhmResponses ohmResponses;
+    private final ObjectMapper objectMapper;
+    private final ModificationStamps modificationStamps;
 
-    private OpenAPI openAPI;
-
-    public OrderResource(OrderRepository orderRepository, DocumentationCache documentationCache, ServiceModelToOpenApiMapper mapper) {
+    public OrderResource(
+        OrderRepository orderRepository,
+        OrderArchive orderArchive,
+        OrderArchiveService orderArchiveService,
+        SearchService searchService,
+        OrderOhmResponses ohmResponses,
+        ObjectMapper objectMapper,
+        ModificationStamps modificationStamps
+    ) {
         this.orderRepository = orderRepository;
-        this.documentationCache = documentationCache;
-        this.mapper = mapper;
+        this.orderArchive = orderArchive;
+        this.orderArchiveService = orderArchiveService;
+        this.searchService = searchService;
+        this.ohmResponses = ohmResponses;
+        this.objectMapper = objectMapper;
+        this.modificationStamps = modificationStamps;
     }
 
     /**
@@ -91,7 +114,7 @@ public class OrderResource {
         }
         order.setProduct(new Faker().commerce().productName());
         Order result = orderRepository.save(order);
-        OhmResponse<Order> ohmResponse = getOrderResponse(result);
+        OhmResponse<Order> ohmResponse = ohmResponses.getOrderResponse(result);
         return ResponseEntity
             .created(new URI("/api/orders/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -113,6 +136,10 @@ public class OrderResource {
         if (order.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        if (order.getVersion() == null) {
+            // Without a version the order would be considered new by Spring Data and persisted instead of merged
+            orderRepository.findById(order.getId()).map(Order::getVersion).ifPresent(order::setVersion);
+        }
         Order result = orderRepository.save(order);
         return ResponseEntity
             .ok()
@@ -122,57 +149,157 @@ public class OrderResource {
 
     /**
      * {@code PUT  /orders/:id} : Updates an existing order.
+     * <p>
+     * Only the cost and the customer of the order are updated, its product is kept as is. If an {@code If-Match} header
+     * or a version is given, the update only happens if the order still has this version. The order isn't read first:
+     * a single conditional {@code UPDATE} is issued, see {@link OrderRepository#updateCostAndCustomer}.
      *
-     * @param id    the id of the order to update.
-     * @param order the order to update.
+     * @param id      the id of the order to update.
+     * @param order   the order to update.
+     * @param ifMatch the optional {@code If-Match} header holding the expected version of the order.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated order,
-     * or with status {@code 400 (Bad Request)} if the order is not valid,
-     * or with status {@code 500 (Internal Server Error)} if the order couldn't be updated.
+     * or with status {@code 400 (Bad Request)} if the customer doesn't exist,
+     * or with status {@code 404 (Not Found)} if the order doesn't exist,
+     * or with status {@code 412 (Precondition Failed)} if the order was modified in the meantime.
      */
     @PutMapping("/orders/{id}")
-    public OhmResponse<Order> updateOrder(@PathVariable Long id, @RequestBody Order order) {
+    public ResponseEntity<OhmResponse<Order>> updateOrder(
+        @PathVariable Long id,
+        @RequestBody Order order,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         log.debug("REST request to update Order : {}", order);
-        order.setId(id);
-        orderRepository
-            .findById(id)
-            .ifPresentOrElse(
-                existingOrder -> order.setProduct(existingOrder.getProduct()),
-                () -> {
-                    throw new ResponseStatusException(HttpStatus.NOT_FOUND);
-                }
-            );
-        Order result = orderRepository.save(order);
-        return getOrderResponse(result);
+        return updateCostAndCustomer(id, order, ifMatch != null ? ConditionalGet.parseVersion(ifMatch) : order.getVersion());
+    }
+
+    /**
+     * {@code PATCH  /orders/:id} : Partially updates an existing order with a JSON Merge Patch.
+     * <p>
+     * Only the cost and the customer of the order can be patched. The order is read to apply the patch, and updated only
+     * if it still has the version which was read.
+     *
+     * @param id      the id of the order to update.
+     * @param patch   the JSON Merge Patch to apply to the order.
+     * @param ifMatch the optional {@code If-Match} header holding the expected version of the order.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated order,
+     * or with status {@code 400 (Bad Request)} if the patch is not valid,
+     * or with status {@code 404 (Not Found)} if the order doesn't exist,
+     * or with status {@code 412 (Precondition Failed)} if the order was modified in the meantime.
+     */
+    @PatchMapping(path = "/orders/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public ResponseEntity<OhmResponse<Order>> patchOrder(
+        @PathVariable Long id,
+        @RequestBody JsonNode patch,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.debug("REST request to patch Order : {}, {}", id, patch);
+        Order order = orderRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        Long expectedVersion = ifMatch != null ? ConditionalGet.parseVersion(ifMatch) : null;
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Order was modified concurrently");
+        }
+        Order patched;
+        try {
+            patched = objectMapper.treeToValue(JsonMergePatch.apply(objectMapper.valueToTree(order), patch), Order.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid merge patch", ENTITY_NAME, "patchinvalid");
+        }
+        return updateCostAndCustomer(id, patched, order.getVersion());
     }
 
     /**
      * {@code GET  /orders} : get all the orders.
+     * <p>
+     * Orders are read as {@link OrderSummary} projections rather than managed entities. Once orders are archived, the
+     * listing can only be sorted by id, see {@link OrderArchive#findAll(Pageable, java.util.function.Function)}.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of orders in body.
+     * @param webRequest the request, to check if the orders changed since the client got them.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of orders in body,
+     * or with status {@code 304 (Not Modified)},
+     * or with status {@code 400 (Bad Request)} if sorted by anything else than the id once orders are archived.
      */
     @GetMapping(value = "/orders")
-    public ResponseEntity<OhmResponse<List<Order>>> getAllOrders(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<OhmResponse<List<OrderSummary>>> getAllOrders(Pageable pageable, WebRequest webRequest) {
         log.debug("REST request to get a page of Orders");
-        Page<Order> page = orderRepository.findAll(pageable);
+        if (ConditionalGet.isListNotModified(webRequest, modificationStamps.getLastModified(Order.class))) {
+            return null;
+        }
+        if (orderArchive.count() > 0 && !OrderArchive.isSortSupported(pageable.getSort())) {
+            throw new BadRequestAlertException(OrderArchive.SORT_NOT_SUPPORTED, ENTITY_NAME, "sortnotsupported");
+        }
+        Page<OrderSummary> page = orderArchive.findAll(pageable, orderRepository::findAllSummaries);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        OhmResponse<List<Order>> ohmResponse = getOrdersResponse(page, true);
+        OhmResponse<List<OrderSummary>> ohmResponse = ohmResponses.getOrdersResponse(page, true);
         return ResponseEntity.ok().headers(headers).body(ohmResponse);
     }
 
     /**
-     * {@code GET  /orders/:id} : get the "id" order.
+     * {@code GET  /orders/search?q=:query} : search the orders by product.
+     *
+     * @param q the query, in the Lucene simple query string syntax.
+     * @param pageable the pagination information, results are sorted by relevance.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching orders in body.
+     */
+    @GetMapping("/orders/search")
+    @Transactional(readOnly = true)
+    public ResponseEntity<OhmResponse<List<OrderSummary>>> searchOrders(@RequestParam String q, Pageable pageable) {
+        log.debug("REST request to search for a page of Orders for query {}", q);
+        Page<Long> ids = searchService.searchOrderIds(q, pageable);
+        Map<Long, OrderSummary> orders = ids.isEmpty()
+            ? Map.of()
+            : orderRepository
+                .findAllSummariesByIdIn(ids.getContent())
+                .stream()
+                .collect(Collectors.toMap(OrderSummary::getId, Function.identity()));
+        // Archived orders are still in the full-text index
+        Page<OrderSummary> page = new PageImpl<>(
+            ids
+                .stream()
+                .map(id -> orders.containsKey(id) ? orders.get(id) : orderArchive.findById(id).orElse(null))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()),
+            pageable,
+            ids.getTotalElements()
+        );
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        OpenAPI openAPI = ohmResponses.getSpringfoxOpenAPI();
+        OhmResponse<List<OrderSummary>> ohmResponse = ohmResponses.getOrdersResponse(
+            page,
+            control(openAPI, GET, "/api/orders/search").parameter("q", q).summary(String.format("Search orders for '%s'", q)),
+            false
+        );
+        return ResponseEntity.ok().headers(headers).body(ohmResponse);
+    }
+
+    /**
+     * {@code GET  /orders/:id} : get the "id" order, from the database or else from the archive, including the segments
+     * archived by another instance since this one last read them, see {@link OrderArchiveService#findArchived}.
      *
      * @param id the id of the order to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the order, or with status {@code 404 (Not Found)}.
+     * @param webRequest the request, to check the version of the order before building the response.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the order, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)}. The version of the order is its weak {@code ETag}.
+     * @see com.mycompany.myapp.web.filter.OrderResponseCacheFilter
      */
     @GetMapping("/orders/{id}")
-    public OhmResponse<Order> getOrder(@PathVariable Long id) {
+    public ResponseEntity<OhmResponse<Order>> getOrder(@PathVariable Long id, WebRequest webRequest) {
         log.debug("REST request to get Order : {}", id);
-        return orderRepository
-            .findById(id)
-            .map(this::getOrderResponse)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        long lastModified = modificationStamps.getLastModified(Order.class, Customer.class);
+        Optional<Order> order = orderRepository.findById(id);
+        boolean archived = order.isEmpty();
+        if (archived) {
+            order = orderArchiveService.findArchived(id).map(ArchivedOrder::toOrder);
+        }
+        if (order.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        // An archived order keeps its version but gets other controls
+        if (ConditionalGet.isEntityNotModified(webRequest, archived ? null : order.get().getVersion(), lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok(ohmResponses.getOrderResponse(order.get(), archived));
     }
 
     /**
@@ -188,7 +315,7 @@ public class OrderResource {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can't delete orders with id <= 100");
         }
         orderRepository.deleteById(id);
-        getSpringfoxOpenAPI();
+        OpenAPI openAPI = ohmResponses.getSpringfoxOpenAPI();
         OhmResponse<Void> ohmResponse = OhmResponse
             .noContent()
             .addControl(control(openAPI, GET, "/api/customers").summary("Get all customers"))
@@ -199,86 +326,52 @@ public class OrderResource {
             .body(ohmResponse);
     }
 
+    /**
+     * {@code GET  /customers/:id/orders} : get the orders of the "id" customer, archived ones included.
+     *
+     * @param id the id of the customer.
+     * @param pageable the pagination information.
+     * @param webRequest the request, to check if the orders changed since the client got them.
+     * @return the page of orders of the customer, or no body with status {@code 304 (Not Modified)},
+     * or with status {@code 400 (Bad Request)} if sorted by anything else than the id once orders of the customer are archived.
+     */
     @GetMapping("/customers/{id}/orders")
-    public OhmResponse<List<Order>> getCustomerOrders(@PathVariable Long id, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public OhmResponse<List<OrderSummary>> getCustomerOrders(@PathVariable Long id, Pageable pageable, WebRequest webRequest) {
         log.debug("REST request to get orders of Customer : {}", id);
-        final Page<Order> page = orderRepository.findAllByCustomerId(id, pageable);
-        return getOrdersResponse(page, false);
-    }
-
-    private OhmResponse<Order> getOrderResponse(Order order) {
-        getSpringfoxOpenAPI();
-        OhmResponse<Order> ohmResponse = OhmResponse.of(order);
-
-        var orderSchema = new ObjectSchema()
-            .addProperties("cost", new NumberSchema().example(order.getCost()))
-            .addProperties(
-                "customer",
-                new ObjectSchema()
-                .addProperties("id", new IntegerSchema().example(order.getCustomer() != null ? order.getCustomer().getId() : null))
-            );
-
-        var requestBody = new io.swagger.v3.oas.models.parameters.RequestBody()
-        .content(new Content().addMediaType("application/json", new MediaType().schema(orderSchema)));
-
-        ohmResponse.addControl(
-            control(openAPI, PUT, "/api/orders/{id}")
-                .parameter("id", order.getId())
-                .requestBody(requestBody)
-                .summary(String.format("Update order %d", order.getId()))
-        );
-        if (order.getId() > 100) {
-            ohmResponse.addControl(
-                control(openAPI, DELETE, "/api/orders/{id}")
-                    .parameter("id", order.getId())
-                    .summary(String.format("Delete order %d", order.getId()))
-            );
+        if (ConditionalGet.isListNotModified(webRequest, modificationStamps.getLastModified(Order.class))) {
+            return null;
         }
-        if (order.getCustomer() != null) {
-            ohmResponse.addControl(
-                control(openAPI, GET, "/api/customers/{id}")
-                    .parameter("id", order.getCustomer().getId())
-                    .summary(String.format("Get order %d customer (%d)", order.getId(), order.getCustomer().getId()))
-            );
+        if (orderArchive.countByCustomerId(id) > 0 && !OrderArchive.isSortSupported(pageable.getSort())) {
+            throw new BadRequestAlertException(OrderArchive.SORT_NOT_SUPPORTED, ENTITY_NAME, "sortnotsupported");
         }
-        return ohmResponse.addControl(control(openAPI, GET, "/api/orders").summary("Get all orders"));
+        final Page<OrderSummary> page = orderArchive.findAllByCustomerId(
+            id,
+            pageable,
+            customerPageable -> orderRepository.findAllSummariesByCustomerId(id, customerPageable)
+        );
+        return ohmResponses.getOrdersResponse(page, false);
     }
 
-    private OhmResponse<List<Order>> getOrdersResponse(Page<Order> page, boolean showCreateControl) {
-        getSpringfoxOpenAPI();
-        OhmResponse<List<Order>> ohmResponse = OhmResponse
-            .of(page.getContent())
-            .addControl(control(openAPI, GET, "/api").summary("Go to home"))
-            .addPaginationControls(control(openAPI, GET, "/api/orders").summary("Get orders"), page);
-
-        page
-            .get()
-            .forEach(
-                order ->
-                    ohmResponse.addControl(
-                        control(openAPI, GET, "/api/orders/{id}")
-                            .parameter("id", order.getId())
-                            .summary(String.format("Get order %d", order.getId()))
-                    )
-            );
-
-        if (showCreateControl) {
-            if (page.getTotalElements() < 200) {
-                var orderSchema = new ObjectSchema()
-                    .addProperties("cost", new NumberSchema())
-                    .addProperties("customer", new ObjectSchema().addProperties("id", new IntegerSchema()));
-                var requestBody = new io.swagger.v3.oas.models.parameters.RequestBody()
-                .content(new Content().addMediaType("application/ohm+json", new MediaType().schema(orderSchema)));
-                ohmResponse.addControl(control(openAPI, POST, "/api/orders").requestBody(requestBody).summary("Create order"));
-            }
+    private ResponseEntity<OhmResponse<Order>> updateCostAndCustomer(Long id, Order order, Long expectedVersion) {
+        Long customerId = order.getCustomer() != null ? order.getCustomer().getId() : null;
+        int updated;
+        try {
+            updated = orderRepository.updateCostAndCustomer(id, order.getCost(), customerId, expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestAlertException("Invalid customer", ENTITY_NAME, "customernotfound");
         }
-        return ohmResponse;
-    }
-
-    private void getSpringfoxOpenAPI() {
-        if (openAPI == null) {
-            Documentation documentation = documentationCache.documentationByGroup(Docket.DEFAULT_GROUP_NAME);
-            openAPI = mapper.mapDocumentation(documentation);
+        if (updated == 0) {
+            if (expectedVersion != null && orderRepository.existsById(id)) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Order was modified concurrently");
+            }
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
+        Order result = orderRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseEntity
+            .ok()
+            .eTag(ConditionalGet.eTag(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+            .body(ohmResponses.getOrderResponse(result));
     }
 }
@@ -0,0 +1,222 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.ArchivedOrder;
+import com.mycompany.myapp.repository.OrderArchive;
+import com.mycompany.myapp.repository.OrderSummary;
+import com.mycompany.myapp.repository.ReactiveOrderRepository;
+import com.mycompany.myapp.service.OrderArchiveService;
+import io.github.jhipster.web.util.PaginationUtil;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking REST controller for reading {@link com.mycompany.myapp.domain.Order}, over R2DBC.
+ * <p>
+ * It serves the same OHM payloads as the read endpoints of {@link OrderResource}, under {@code /api/reactive}, without
+ * holding a request thread while the database is queried. Only the archive, read from files, is read on the bounded
+ * elastic scheduler.
+ */
+@RestController
+@Profile(Constants.SPRING_PROFILE_REACTIVE)
+@RequestMapping(path = "/api/reactive", produces = { "application/ohm+json", "application/json" })
+public class ReactiveOrderResource {
+    private final Logger log = LoggerFactory.getLogger(ReactiveOrderResource.class);
+
+    private final ReactiveOrderRepository reactiveOrderRepository;
+    private final OrderArchive orderArchive;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderOhmResponses ohmResponses;
+
+    public ReactiveOrderResource(
+        ReactiveOrderRepository reactiveOrderRepository,
+        OrderArchive orderArchive,
+        OrderArchiveService orderArchiveService,
+        OrderOhmResponses ohmResponses
+    ) {
+        this.reactiveOrderRepository = reactiveOrderRepository;
+        this.orderArchive = orderArchive;
+        this.orderArchiveService = orderArchiveService;
+        this.ohmResponses = ohmResponses;
+    }
+
+    /**
+     * {@code GET  /reactive/orders} : get all the orders.
+     *
+     * @param pageable the pagination information, only sorted by id once orders are archived.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of orders in body,
+     * or with status {@code 400 (Bad Request)} if sorted by anything else than the id once orders are archived.
+     */
+    @GetMapping("/orders")
+    public Mono<ResponseEntity<OhmResponse<List<OrderSummary>>>> getAllOrders(Pageable pageable) {
+        log.debug("REST request to get a page of Orders");
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        return findAll(
+                pageable,
+                orderArchive.count(),
+                reactiveOrderRepository::findAllSummaries,
+                reactiveOrderRepository.count(),
+                orderArchive::findAll
+            )
+            .map(
+                page -> {
+                    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+                    return ResponseEntity.ok().headers(headers).body(ohmResponses.getOrdersResponse(page, true));
+                }
+            );
+    }
+
+    /**
+     * {@code GET  /reactive/orders/:id} : get the "id" order, from the database or else from the archive, see
+     * {@link OrderArchiveService#findArchived}.
+     *
+     * @param id the id of the order to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the order, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/orders/{id}")
+    public Mono<OhmResponse<Order>> getOrder(@PathVariable Long id) {
+        log.debug("REST request to get Order : {}", id);
+        return reactiveOrderRepository
+            .findById(id)
+            .map(ohmResponses::getOrderResponse)
+            .switchIfEmpty(
+                Mono
+                    .fromCallable(() -> orderArchiveService.findArchived(id))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(archived -> Mono.justOrEmpty(archived.map(order -> ohmResponses.getOrderResponse(order.toOrder(), true))))
+            )
+            .switchIfEmpty(Mono.defer(() -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND))));
+    }
+
+    /**
+     * {@code GET  /reactive/customers/:id/orders} : get the orders of the "id" customer, archived ones included.
+     *
+     * @param id the id of the customer.
+     * @param pageable the pagination information, only sorted by id once orders of the customer are archived.
+     * @return the page of orders of the customer.
+     */
+    @GetMapping("/customers/{id}/orders")
+    public Mono<OhmResponse<List<OrderSummary>>> getCustomerOrders(@PathVariable Long id, Pageable pageable) {
+        log.debug("REST request to get orders of Customer : {}", id);
+        return findAll(
+                pageable,
+                orderArchive.countByCustomerId(id),
+                (sort, offset, limit) -> reactiveOrderRepository.findAllSummariesByCustomerId(id, sort, offset, limit),
+                reactiveOrderRepository.countByCustomerId(id),
+                (offset, limit) -> orderArchive.findAllByCustomerId(id, offset, limit)
+            )
+            .map(page -> ohmResponses.getOrdersResponse(page, false));
+    }
+
+    /**
+     * Get a page of orders, from the database and from the archive, like
+     * {@link OrderArchive#findAll(Pageable, java.util.function.Function)}.
+     * <p>
+     * The database is queried without blocking: only the archive is read on the bounded elastic scheduler. Sorted by
+     * ascending id, the archived orders come first, so both are read at once; otherwise the archive completes the
+     * database rows.
+     */
+    private Mono<Page<OrderSummary>> findAll(
+        Pageable pageable,
+        long archivedTotal,
+        DatabaseOrders databaseOrders,
+        Mono<Long> databaseCount,
+        BiFunction<Long, Integer, List<ArchivedOrder>> archivedOrders
+    ) {
+        Sort sort = pageable.getSort();
+        if (!ReactiveOrderRepository.isSortSupported(sort)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Orders cannot be sorted by " + sort));
+        }
+        if (archivedTotal > 0 && !OrderArchive.isSortSupported(sort)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, OrderArchive.SORT_NOT_SUPPORTED));
+        }
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int pageSize = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        Sort.Order idOrder = sort.getOrderFor("id");
+        if (archivedTotal > 0 && idOrder != null && idOrder.isAscending()) {
+            int archivedSize = (int) Math.max(0, Math.min(pageSize, archivedTotal - offset));
+            Mono<List<OrderSummary>> archived = readArchive(archivedSize, () -> archivedOrders.apply(offset, archivedSize));
+            Mono<List<OrderSummary>> rows = archivedSize < pageSize
+                ? databaseOrders.find(sort, Math.max(0, offset - archivedTotal), pageSize - archivedSize).collectList()
+                : Mono.just(List.of());
+            return Mono
+                .zip(archived, rows, databaseCount)
+                .map(result -> toPage(concat(result.getT1(), result.getT2()), pageable, result.getT3() + archivedTotal));
+        }
+        return Mono
+            .zip(databaseOrders.find(sort, offset, pageSize).collectList(), databaseCount)
+            .flatMap(
+                result -> {
+                    List<OrderSummary> rows = result.getT1();
+                    long databaseTotal = result.getT2();
+                    long archivedOffset = Math.max(0, offset - databaseTotal);
+                    int missing = (int) Math.max(0, Math.min(pageSize - rows.size(), archivedTotal - archivedOffset));
+                    return readArchive(
+                            missing,
+                            () -> {
+                                if (idOrder == null) {
+                                    return archivedOrders.apply(archivedOffset, missing);
+                                }
+                                // Read backwards from the end of the archive
+                                List<ArchivedOrder> archived = new ArrayList<>(
+                                    archivedOrders.apply(archivedTotal - archivedOffset - missing, missing)
+                                );
+                                Collections.reverse(archived);
+                                return archived;
+                            }
+                        )
+                        .map(archived -> toPage(concat(rows, archived), pageable, databaseTotal + archivedTotal));
+                }
+            );
+    }
+
+    private static Mono<List<OrderSummary>> readArchive(int size, Callable<List<? extends OrderSummary>> archivedOrders) {
+        if (size == 0) {
+            return Mono.just(List.of());
+        }
+        return Mono.<List<OrderSummary>>fromCallable(() -> new ArrayList<>(archivedOrders.call())).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static List<OrderSummary> concat(List<OrderSummary> first, List<OrderSummary> second) {
+        List<OrderSummary> content = new ArrayList<>(first.size() + second.size());
+        content.addAll(first);
+        content.addAll(second);
+        return content;
+    }
+
+    private static Page<OrderSummary> toPage(List<OrderSummary> content, Pageable pageable, long total) {
+        return pageable.isPaged() ? new PageImpl<>(content, pageable, total) : new PageImpl<>(content);
+    }
+
+    /**
+     * Reads orders from the database, without blocking.
+     */
+    @FunctionalInterface
+    private interface DatabaseOrders {
+        Flux<OrderSummary> find(Sort sort, long offset, int limit);
+    }
+}
@@ -1,9 +1,12 @@
 package com.mycompany.myapp.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mycompany.myapp.security.PasswordVerificationExecutor;
 import com.mycompany.myapp.security.jwt.JWTFilter;
 import com.mycompany.myapp.security.jwt.TokenProvider;
+import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.web.rest.vm.LoginVM;
+import java.util.Map;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -24,9 +27,20 @@ public class UserJWTController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final PasswordVerificationExecutor passwordVerificationExecutor;
+
+    private final UserService userService;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        PasswordVerificationExecutor passwordVerificationExecutor,
+        UserService userService
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.passwordVerificationExecutor = passwordVerificationExecutor;
+        this.userService = userService;
     }
 
     @PostMapping("/authenticate")
@@ -36,15 +50,34 @@ public class UserJWTController {
             loginVM.getPassword()
         );
 
-        Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        Authentication authentication = passwordVerificationExecutor.authenticate(
+            authenticationManagerBuilder.getObject(),
+            authenticationToken
+        );
         SecurityContextHolder.getContext().setAuthentication(authentication);
         boolean rememberMe = (loginVM.isRememberMe() != null) && loginVM.isRememberMe();
-        String jwt = tokenProvider.createToken(authentication, rememberMe);
+        // Caches the profile for GET /api/account, which follows every login
+        Map<String, Object> profile = userService.getUserProfile(authentication.getName()).map(UserService::toProfileClaims).orElse(null);
+        String jwt = tokenProvider.createToken(authentication, rememberMe, profile);
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
         return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
     }
 
+    /**
+     * {@code POST /logout} : revoke the JWT of the request, which is rejected from then on.
+     *
+     * @param authorization the authorization header of the request.
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(JWTFilter.AUTHORIZATION_HEADER) String authorization) {
+        if (authorization.startsWith("Bearer ")) {
+            tokenProvider.revokeToken(authorization.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Object to return as body in JWT Authentication.
      */
@@ -1,4 +1,14 @@
 #!/bin/sh
 
 echo "The application will start in ${JHIPSTER_SLEEP}s..." && sleep ${JHIPSTER_SLEEP}
+# Direct memory defaults to the maximum heap size, too small for the off-heap cache tiers of application-prod.yml
+# (3.6GB): 4g leaves room for the NIO buffers, unless JAVA_OPTS or _JAVA_OPTIONS already set it
+case "${JAVA_OPTS} ${_JAVA_OPTIONS}" in
+    *MaxDirectMemorySize*) ;;
+    *) JAVA_OPTS="${JAVA_OPTS} -XX:MaxDirectMemorySize=${MAX_DIRECT_MEMORY_SIZE:-4g}" ;;
+esac
+if [ -f /app/appcds/app.jsa ]; then
+    # AppCDS archive packaged by the 'appcds' Maven profile, only valid with the classpath of its training run
+    exec java ${JAVA_OPTS} -noverify -XX:+AlwaysPreTouch -XX:SharedArchiveFile=/app/appcds/app.jsa -Xshare:auto -Djava.security.egd=file:/dev/./urandom -cp "$(cat /app/appcds/classpath.txt)" "com.mycompany.myapp.RestApp"  "$@"
+fi
 exec java ${JAVA_OPTS} -noverify -XX:+AlwaysPreTouch -Djava.security.egd=file:/dev/./urandom -cp /app/resources/:/app/classes/:/app/libs/* "com.mycompany.myapp.RestApp"  "$@"
@@ -0,0 +1,87 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for the changelog fingerprint check of {@link LiquibaseConfiguration}, against an in-memory database.
+ */
+class LiquibaseConfigurationTest {
+    private static final String CHECKSUM = "0123456789abcdef";
+
+    private JdbcDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private LiquibaseConfiguration liquibaseConfiguration;
+
+    @BeforeEach
+    public void setup() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:liquibase-configuration;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        liquibaseConfiguration = new LiquibaseConfiguration(new MockEnvironment(), new ApplicationProperties());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.execute("drop table if exists jhi_changelog_fingerprint");
+    }
+
+    @Test
+    void testNotAppliedWithoutFingerprintTable() {
+        assertThat(liquibaseConfiguration.isChangelogApplied(dataSource, CHECKSUM, "test")).isFalse();
+    }
+
+    @Test
+    void testAppliedWithSameChecksumAndContexts() {
+        recordFingerprint(CHECKSUM, "test");
+
+        assertThat(liquibaseConfiguration.isChangelogApplied(dataSource, CHECKSUM, "test")).isTrue();
+    }
+
+    @Test
+    void testNotAppliedWithOtherChecksumOrContexts() {
+        recordFingerprint(CHECKSUM, "test");
+
+        assertThat(liquibaseConfiguration.isChangelogApplied(dataSource, "fedcba9876543210", "test")).isFalse();
+        assertThat(liquibaseConfiguration.isChangelogApplied(dataSource, CHECKSUM, "test,faker")).isFalse();
+        assertThat(liquibaseConfiguration.isChangelogApplied(dataSource, CHECKSUM, "")).isFalse();
+    }
+
+    @Test
+    void testNotAppliedWithoutPackagedChecksum() {
+        recordFingerprint("", "");
+
+        assertThat(liquibaseConfiguration.isChangelogApplied(dataSource, "", "")).isFalse();
+        assertThat(liquibaseConfiguration.isChangelogApplied(null, CHECKSUM, "")).isFalse();
+    }
+
+    @Test
+    void testAppliedWithoutContexts() {
+        recordFingerprint(CHECKSUM, null);
+
+        assertThat(liquibaseConfiguration.isChangelogApplied(dataSource, CHECKSUM, "")).isTrue();
+    }
+
+    /**
+     * Record a fingerprint like the last changeset of the changelog.
+     */
+    private void recordFingerprint(String checksum, String contexts) {
+        jdbcTemplate.execute(
+            "create table jhi_changelog_fingerprint (id integer primary key, checksum varchar(64) not null, contexts varchar(255), " +
+            "updated_date timestamp)"
+        );
+        jdbcTemplate.update(
+            "insert into jhi_changelog_fingerprint (id, checksum, contexts, updated_date) values (1, ?, ?, current_timestamp)",
+            checksum,
+            contexts
+        );
+    }
+}
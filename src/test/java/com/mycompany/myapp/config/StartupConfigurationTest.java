@@ -0,0 +1,46 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.management.HibernateStatisticsMetrics;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Unit tests for the beans kept eager by {@link StartupConfiguration}.
+ */
+class StartupConfigurationTest {
+    private final LazyInitializationExcludeFilter eagerBeans = StartupConfiguration.eagerBeans();
+
+    @Test
+    void testLiquibaseAndMetricsAreEager() {
+        assertThat(isEager(SpringLiquibase.class)).isTrue();
+        assertThat(isEager(HibernateStatisticsMetrics.class)).isTrue();
+    }
+
+    @Test
+    void testBeansWithScheduledTasksAreEager() {
+        assertThat(isEager(ScheduledBean.class)).isTrue();
+        assertThat(isEager(ScheduledSubclass.class)).isTrue();
+    }
+
+    @Test
+    void testOtherBeansAreLazy() {
+        assertThat(isEager(Object.class)).isFalse();
+        assertThat(eagerBeans.isExcluded("unknown", new RootBeanDefinition(), null)).isFalse();
+    }
+
+    private boolean isEager(Class<?> beanType) {
+        return eagerBeans.isExcluded("bean", new RootBeanDefinition(beanType), beanType);
+    }
+
+    static class ScheduledBean {
+        @Scheduled(fixedDelay = 1000)
+        public void run() {}
+    }
+
+    static class ScheduledSubclass extends ScheduledBean {}
+}
@@ -0,0 +1,45 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for the {@link VirtualThreads} class, on whichever JDK runs them.
+ */
+class VirtualThreadsTest {
+    @Test
+    void testDisabledWithoutProfile() {
+        assertThat(VirtualThreads.isEnabled(new MockEnvironment())).isFalse();
+    }
+
+    @Test
+    void testEnabledWithProfileWhenSupported() {
+        MockEnvironment env = new MockEnvironment();
+        env.setActiveProfiles(Constants.SPRING_PROFILE_VIRTUAL_THREADS);
+
+        assertThat(VirtualThreads.isEnabled(env)).isEqualTo(VirtualThreads.isSupported());
+    }
+
+    @Test
+    void testThreadPerTaskExecutor() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            assertThatThrownBy(() -> VirtualThreads.newThreadPerTaskExecutor("test-")).isInstanceOf(IllegalStateException.class);
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            String threadName = executor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+            Boolean virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get();
+
+            assertThat(threadName).startsWith("test-");
+            assertThat(virtual).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
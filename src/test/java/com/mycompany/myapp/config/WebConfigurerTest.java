@@ -77,6 +77,18 @@ class WebConfigurerTest {
         }
     }
 
+    @Test
+    void testCustomizeServletContainerWithVirtualThreads() {
+        UndertowServletWebServerFactory container = new UndertowServletWebServerFactory();
+        webConfigurer.customize(container);
+        assertThat(container.getDeploymentInfoCustomizers()).isEmpty();
+
+        env.setActiveProfiles(Constants.SPRING_PROFILE_VIRTUAL_THREADS);
+        container = new UndertowServletWebServerFactory();
+        webConfigurer.customize(container);
+        assertThat(container.getDeploymentInfoCustomizers()).hasSize(VirtualThreads.isSupported() ? 1 : 0);
+    }
+
     @Test
     void testCorsFilterOnApiPath() throws Exception {
         props.getCors().setAllowedOrigins(Collections.singletonList("*"));
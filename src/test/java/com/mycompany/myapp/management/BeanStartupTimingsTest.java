@@ -0,0 +1,71 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+
+/**
+ * Test class for {@link BeanStartupTimings}.
+ */
+class BeanStartupTimingsTest {
+    private BeanStartupTimings beanStartupTimings;
+
+    @BeforeEach
+    public void setup() {
+        beanStartupTimings = new BeanStartupTimings();
+    }
+
+    @Test
+    void testDependenciesAreNotCountedInSelfDuration() throws Exception {
+        beanStartupTimings.postProcessBeforeInstantiation(Outer.class, "outer");
+        Thread.sleep(10);
+        beanStartupTimings.postProcessBeforeInstantiation(Inner.class, "inner");
+        Thread.sleep(50);
+        beanStartupTimings.postProcessAfterInitialization(new Inner(), "inner");
+        beanStartupTimings.postProcessAfterInitialization(new Outer(), "outer");
+
+        List<Map<String, Object>> steps = beanStartupTimings.getSteps();
+
+        assertThat(steps).extracting(step -> step.get("bean")).containsExactly("inner", "outer");
+        Map<String, Object> outer = steps.get(1);
+        assertThat(outer.get("type")).isEqualTo(Outer.class.getName());
+        assertThat((Long) outer.get("durationMs")).isGreaterThanOrEqualTo(60);
+        assertThat((Long) outer.get("selfMs")).isLessThan(50);
+        assertThat((Long) steps.get(0).get("selfMs")).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void testFailedCreationIsSkipped() {
+        beanStartupTimings.postProcessBeforeInstantiation(Outer.class, "outer");
+        beanStartupTimings.postProcessBeforeInstantiation(Inner.class, "inner");
+        beanStartupTimings.postProcessAfterInitialization(new Outer(), "outer");
+
+        assertThat(beanStartupTimings.getSteps()).extracting(step -> step.get("bean")).containsExactly("outer");
+    }
+
+    @Test
+    void testBeansNotInstantiatedHereAreSkipped() {
+        beanStartupTimings.postProcessAfterInitialization(new Outer(), "outer");
+
+        assertThat(beanStartupTimings.getSteps()).isEmpty();
+    }
+
+    @Test
+    void testRecordingStopsWhenReady() {
+        beanStartupTimings.onApplicationEvent(mock(ApplicationReadyEvent.class));
+
+        beanStartupTimings.postProcessBeforeInstantiation(Outer.class, "outer");
+        beanStartupTimings.postProcessAfterInitialization(new Outer(), "outer");
+
+        assertThat(beanStartupTimings.getSteps()).isEmpty();
+    }
+
+    private static class Outer {}
+
+    private static class Inner {}
+}
@@ -0,0 +1,108 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link CacheMetrics}, against a JCache manager of Ehcache.
+ */
+class CacheMetricsTest {
+    private CacheManager cacheManager;
+
+    private Cache<Object, Object> heapCache;
+
+    private Cache<Object, Object> offHeapCache;
+
+    private CacheMetrics cacheMetrics;
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager =
+            Caching
+                .getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager(URI.create("cache-metrics-test"), getClass().getClassLoader());
+        heapCache = cacheManager.createCache("heap", configuration(ResourcePoolsBuilder.heap(10)));
+        offHeapCache = cacheManager.createCache("offHeap", configuration(ResourcePoolsBuilder.heap(10).offheap(1, MemoryUnit.MB)));
+        cacheManager.enableStatistics("heap", true);
+        cacheManager.enableStatistics("offHeap", true);
+        cacheMetrics = new CacheMetrics(cacheManager);
+        registry = new SimpleMeterRegistry();
+        cacheMetrics.bindTo(registry);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        cacheManager.close();
+    }
+
+    @Test
+    void testSizeIsZeroOnceCleared() {
+        put(heapCache, 3);
+        assertThat(size("heap")).isEqualTo(3);
+        assertThat(cacheMetrics.getStatistics("heap")).containsEntry("size", 3L);
+
+        heapCache.clear();
+
+        assertThat(size("heap")).isZero();
+        assertThat(cacheMetrics.getStatistics("heap")).containsEntry("size", 0L);
+    }
+
+    @Test
+    void testSizeIsBoundedByEvictions() {
+        put(heapCache, 25);
+
+        assertThat(size("heap")).isEqualTo(10);
+    }
+
+    @Test
+    void testSizeIsReadFromTheLowestTier() {
+        put(offHeapCache, 25);
+
+        assertThat(size("offHeap")).isEqualTo(25);
+        assertThat(registry.get("cache.tier.size").tags("cache", "offHeap", "tier", "OnHeap").gauge().value()).isLessThanOrEqualTo(10);
+        assertThat(registry.get("cache.tier.size").tags("cache", "offHeap", "tier", "OffHeap").gauge().value()).isEqualTo(25);
+        assertThat(registry.get("cache.tier.occupied").tags("cache", "offHeap", "tier", "OffHeap").gauge().value()).isPositive();
+
+        cacheMetrics.clear("offHeap");
+
+        assertThat(size("offHeap")).isZero();
+    }
+
+    @Test
+    void testUnknownCache() {
+        assertThat(cacheMetrics.getStatistics("unknown")).isNull();
+        assertThat(cacheMetrics.clear("unknown")).isFalse();
+    }
+
+    private double size(String name) {
+        return registry.get("cache.size").tag("cache", name).gauge().value();
+    }
+
+    private static void put(Cache<Object, Object> cache, int count) {
+        for (long key = 0; key < count; key++) {
+            cache.put(key, "value " + key);
+        }
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> configuration(ResourcePoolsBuilder resourcePools) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+        );
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link HibernateStatisticsMetrics}.
+ */
+class HibernateStatisticsMetricsTest {
+    private static final String BY_COST = "select o from Order o order by o.cost asc";
+    private static final String BY_ID = "select o from Order o order by o.id desc";
+
+    private Statistics statistics;
+
+    private SimpleMeterRegistry registry;
+
+    private HibernateStatisticsMetrics metrics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = mock(Statistics.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+        when(statistics.getEntityNames()).thenReturn(new String[0]);
+        when(statistics.getQueries()).thenReturn(new String[0]);
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        registry = new SimpleMeterRegistry();
+        metrics = new HibernateStatisticsMetrics(entityManagerFactory);
+        metrics.bindTo(registry);
+    }
+
+    @Test
+    void testQueriesAreTimedByName() {
+        QueryStatistics byCost = queryStatistics(BY_COST, 2, 30);
+        queryStatistics(BY_ID, 1, 10);
+
+        metrics.bindQueries();
+        when(byCost.getExecutionCount()).thenReturn(3L);
+        when(byCost.getExecutionTotalTime()).thenReturn(50L);
+        metrics.bindQueries();
+
+        FunctionTimer timer = registry.get("hibernate.query").tag("query", "Order.select").functionTimer();
+        assertThat(registry.get("hibernate.query").functionTimers()).hasSize(1);
+        assertThat(timer.count()).isEqualTo(4);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(60);
+    }
+
+    @Test
+    void testClearedStatisticsAreCountedAgain() {
+        QueryStatistics byCost = queryStatistics(BY_COST, 2, 30);
+
+        metrics.bindQueries();
+        when(byCost.getExecutionCount()).thenReturn(1L);
+        when(byCost.getExecutionTotalTime()).thenReturn(5L);
+        metrics.bindQueries();
+
+        FunctionTimer timer = registry.get("hibernate.query").tag("query", "Order.select").functionTimer();
+        assertThat(timer.count()).isEqualTo(3);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(35);
+    }
+
+    @Test
+    void testQueryName() {
+        assertThat(HibernateStatisticsMetrics.queryName("select o.id as id from Order o where o.customer.id = :customerId"))
+            .isEqualTo("Order.select");
+        assertThat(HibernateStatisticsMetrics.queryName("SELECT count(o) FROM com.mycompany.myapp.domain.Order o"))
+            .isEqualTo("Order.select");
+        assertThat(HibernateStatisticsMetrics.queryName("delete from Order o where o.id <= :maxArchivedId")).isEqualTo("Order.delete");
+        assertThat(HibernateStatisticsMetrics.queryName("update versioned User u set u.activated = true")).isEqualTo("User.update");
+        assertThat(HibernateStatisticsMetrics.queryName("select * from jhi_user")).isEqualTo("jhi_user.select");
+        assertThat(HibernateStatisticsMetrics.queryName("call refresh()")).isEqualTo("other");
+    }
+
+    private QueryStatistics queryStatistics(String query, long count, long totalTime) {
+        QueryStatistics queryStatistics = mock(QueryStatistics.class);
+        when(queryStatistics.getExecutionCount()).thenReturn(count);
+        when(queryStatistics.getExecutionTotalTime()).thenReturn(totalTime);
+        when(statistics.getQueryStatistics(query)).thenReturn(queryStatistics);
+        String[] queries = statistics.getQueries();
+        String[] withQuery = Arrays.copyOf(queries, queries.length + 1);
+        withQuery[queries.length] = query;
+        when(statistics.getQueries()).thenReturn(withQuery);
+        return queryStatistics;
+    }
+}
@@ -0,0 +1,247 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the {@link OrderArchive}.
+ */
+class OrderArchiveTest {
+    @TempDir
+    Path directory;
+
+    private ApplicationProperties applicationProperties;
+
+    private OrderArchive orderArchive;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getArchive().setDirectory(directory.toString());
+        applicationProperties.getArchive().setOrdersPerBlock(4);
+        orderArchive = new OrderArchive(applicationProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderArchive.close();
+    }
+
+    @Test
+    void testFindById() throws Exception {
+        archive(orders(1, 10), orders(20, 30));
+
+        assertThat(orderArchive.getMaxId()).isEqualTo(30);
+        assertThat(orderArchive.count()).isEqualTo(21);
+        assertThat(orderArchive.findById(7L)).hasValueSatisfying(order -> assertThat(order.getProduct()).isEqualTo("product 7"));
+        assertThat(orderArchive.findById(30L)).hasValueSatisfying(order -> assertThat(order.getCost()).isEqualTo(30.0));
+        assertThat(orderArchive.findById(15L)).isEmpty();
+        assertThat(orderArchive.findById(31L)).isEmpty();
+    }
+
+    @Test
+    void testFindAll() throws Exception {
+        archive(orders(1, 10), orders(20, 30));
+
+        assertThat(orderArchive.findAll(8, 5)).extracting(ArchivedOrder::getId).containsExactly(9L, 10L, 20L, 21L, 22L);
+        assertThat(orderArchive.findAll(19, 5)).extracting(ArchivedOrder::getId).containsExactly(29L, 30L);
+        assertThat(orderArchive.findAll(21, 5)).isEmpty();
+    }
+
+    @Test
+    void testFindAllByCustomerId() throws Exception {
+        archive(orders(1, 10), orders(20, 30));
+
+        assertThat(orderArchive.countByCustomerId(1L)).isEqualTo(10);
+        assertThat(orderArchive.findAllByCustomerId(1L, 4, 3)).extracting(ArchivedOrder::getId).containsExactly(9L, 21L, 23L);
+        assertThat(orderArchive.findAllByCustomerId(1L, 9, 3)).extracting(ArchivedOrder::getId).containsExactly(29L);
+        assertThat(orderArchive.findAllByCustomerId(3L, 0, 3)).isEmpty();
+    }
+
+    @Test
+    void testFindAllSortedByIdAscending() throws Exception {
+        archive(orders(1, 10), orders(20, 30));
+        Function<Pageable, Page<OrderSummary>> database = database(orders(31, 40));
+
+        Page<OrderSummary> page = orderArchive.findAll(PageRequest.of(4, 5, Sort.by("id")), database);
+        assertThat(page.getContent()).extracting(OrderSummary::getId).containsExactly(30L, 31L, 32L, 33L, 34L);
+        assertThat(page.getTotalElements()).isEqualTo(31);
+        assertThat(orderArchive.findAll(PageRequest.of(5, 5, Sort.by("id")), database).getContent())
+            .extracting(OrderSummary::getId)
+            .containsExactly(35L, 36L, 37L, 38L, 39L);
+        assertThat(orderArchive.findAll(PageRequest.of(1, 5, Sort.by("id")), database).getContent())
+            .extracting(OrderSummary::getId)
+            .containsExactly(6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    void testFindAllSortedByIdDescending() throws Exception {
+        archive(orders(1, 10), orders(20, 30));
+        Function<Pageable, Page<OrderSummary>> database = database(orders(31, 40));
+
+        assertThat(orderArchive.findAll(PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "id")), database).getContent())
+            .extracting(OrderSummary::getId)
+            .containsExactly(40L, 39L, 38L, 37L);
+        assertThat(orderArchive.findAll(PageRequest.of(2, 4, Sort.by(Sort.Direction.DESC, "id")), database).getContent())
+            .extracting(OrderSummary::getId)
+            .containsExactly(32L, 31L, 30L, 29L);
+        assertThat(orderArchive.findAll(PageRequest.of(7, 4, Sort.by(Sort.Direction.DESC, "id")), database).getContent())
+            .extracting(OrderSummary::getId)
+            .containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void testFindAllUnsorted() throws Exception {
+        archive(orders(1, 10), orders(20, 30));
+
+        Page<OrderSummary> page = orderArchive.findAll(PageRequest.of(2, 4), database(orders(31, 40)));
+
+        assertThat(page.getContent()).extracting(OrderSummary::getId).containsExactly(39L, 40L, 1L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(31);
+    }
+
+    @Test
+    void testFindAllByCustomerIdMergesTheDatabase() throws Exception {
+        archive(orders(1, 10), orders(20, 30));
+        Function<Pageable, Page<OrderSummary>> database = database(List.of(order(31, 1L), order(33, 1L)));
+
+        Page<OrderSummary> page = orderArchive.findAllByCustomerId(1L, PageRequest.of(2, 4, Sort.by("id")), database);
+
+        assertThat(page.getContent()).extracting(OrderSummary::getId).containsExactly(27L, 29L, 31L, 33L);
+        assertThat(page.getTotalElements()).isEqualTo(12);
+    }
+
+    @Test
+    void testFindAllRejectsOtherSorts() throws Exception {
+        Pageable byCost = PageRequest.of(0, 5, Sort.by("cost"));
+        Function<Pageable, Page<OrderSummary>> database = database(orders(31, 40));
+        assertThat(orderArchive.findAll(byCost, database).getContent()).hasSize(5);
+
+        archive(orders(1, 10));
+
+        assertThat(OrderArchive.isSortSupported(Sort.by("id"))).isTrue();
+        assertThat(OrderArchive.isSortSupported(Sort.by("id", "cost"))).isFalse();
+        assertThatThrownBy(() -> orderArchive.findAll(byCost, database)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(orderArchive.findAllByCustomerId(2L, byCost, database).getContent()).hasSize(5);
+    }
+
+    @Test
+    void testWrittenSegmentIsOnlyReadOnceCommitted() throws Exception {
+        long firstId = orderArchive.write(orders(1, 10));
+
+        assertThat(orderArchive.count()).isZero();
+        assertThat(orderArchive.findById(5L)).isEmpty();
+
+        assertThat(orderArchive.refresh(List.of(firstId))).isTrue();
+        assertThat(orderArchive.refresh(List.of(firstId))).isFalse();
+
+        assertThat(orderArchive.count()).isEqualTo(10);
+        assertThatThrownBy(() -> orderArchive.delete(firstId)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testSegmentsAreReopened() throws Exception {
+        archive(orders(1, 10));
+        orderArchive.close();
+
+        orderArchive = new OrderArchive(applicationProperties);
+        orderArchive.refresh(List.of(1L));
+
+        assertThat(orderArchive.count()).isEqualTo(10);
+        assertThat(orderArchive.findById(5L)).hasValueSatisfying(order -> assertThat(order.getCustomerId()).isEqualTo(1L));
+        assertThat(orderArchive.findById(6L)).hasValueSatisfying(order -> assertThat(order.getCustomerId()).isNull());
+    }
+
+    @Test
+    void testRefreshFailsOnMissingSegment() throws Exception {
+        archive(orders(1, 10));
+
+        assertThatThrownBy(() -> orderArchive.refresh(List.of(1L, 20L))).isInstanceOf(IOException.class);
+
+        assertThat(orderArchive.count()).isEqualTo(10);
+    }
+
+    @Test
+    void testUncommittedSegmentsAreDeleted() throws Exception {
+        archive(orders(1, 10));
+        orderArchive.write(orders(20, 30));
+        Files.createTempFile(directory, "orders-", ".tmp");
+
+        orderArchive.deleteUncommitted(List.of(1L));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString())).containsExactly("orders-0000000000000000001.seg");
+        }
+        assertThat(orderArchive.findById(5L)).isPresent();
+    }
+
+    @Test
+    void testWriteRejectsArchivedIds() throws Exception {
+        archive(orders(1, 10));
+
+        assertThatThrownBy(() -> orderArchive.write(orders(5, 15))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Write and commit segments, as the archival job does.
+     */
+    @SafeVarargs
+    private void archive(List<ArchivedOrder>... segments) throws IOException {
+        List<Long> committed = new ArrayList<>();
+        for (List<ArchivedOrder> segment : segments) {
+            committed.add(orderArchive.write(segment));
+            orderArchive.refresh(committed);
+        }
+    }
+
+    /**
+     * Pages of the orders still in the database, as read by the {@link OrderRepository}.
+     */
+    private static Function<Pageable, Page<OrderSummary>> database(List<ArchivedOrder> orders) {
+        return pageable -> {
+            List<OrderSummary> rows = new ArrayList<>(orders);
+            Sort.Order idOrder = pageable.getSort().getOrderFor("id");
+            if (idOrder != null && idOrder.isDescending()) {
+                Collections.reverse(rows);
+            }
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(rows);
+            }
+            List<OrderSummary> content = rows
+                .stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+            return new PageImpl<>(content, pageable, rows.size());
+        };
+    }
+
+    private static List<ArchivedOrder> orders(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId).mapToObj(id -> order(id, id % 2 == 1 ? 1L : null)).collect(Collectors.toList());
+    }
+
+    private static ArchivedOrder order(long id, Long customerId) {
+        return new ArchivedOrder(id, "product " + id, (double) id, customerId, 0L);
+    }
+}
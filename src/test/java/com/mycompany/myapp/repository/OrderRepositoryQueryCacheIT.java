@@ -0,0 +1,88 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.RestApp;
+import com.mycompany.myapp.domain.Order;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Integration tests for the query cache of the {@link OrderRepository} pages.
+ * <p>
+ * The second-level cache is disabled for the other tests, so it is enabled here, and the orders are committed.
+ */
+@SpringBootTest(
+    classes = RestApp.class,
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+    }
+)
+class OrderRepositoryQueryCacheIT {
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "id"));
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Order order;
+
+    @BeforeEach
+    public void initTest() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        order = orderRepository.saveAndFlush(new Order().product("AAAAAAAAAA").cost(1D));
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        orderRepository.deleteById(order.getId());
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void hotPageIsOnlyQueriedOnce() {
+        orderRepository.findAllSummaries(FIRST_PAGE);
+        long executions = statistics.getQueryExecutionCount();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(orderRepository.findAllSummaries(FIRST_PAGE).getContent())
+                .extracting(OrderSummary::getId)
+                .contains(order.getId());
+        }
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(executions);
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThanOrEqualTo(100);
+    }
+
+    @Test
+    void writesInvalidateCachedPages() {
+        orderRepository.findAllSummaries(FIRST_PAGE);
+        long executions = statistics.getQueryExecutionCount();
+
+        Order other = orderRepository.saveAndFlush(new Order().product("BBBBBBBBBB").cost(2D));
+        try {
+            assertThat(orderRepository.findAllSummaries(FIRST_PAGE).getContent())
+                .extracting(OrderSummary::getId)
+                .contains(other.getId());
+            assertThat(statistics.getQueryExecutionCount()).isGreaterThan(executions);
+        } finally {
+            orderRepository.deleteById(other.getId());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Test class for {@link UserCache}.
+ */
+class UserCacheTest {
+    private static final String LOGIN = "test-user";
+    private static final String EMAIL = "test-user@example.com";
+
+    private UserRepository userRepository;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private UserCache userCache;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        user = new User();
+        user.setId(1L);
+        user.setLogin(LOGIN);
+        user.setEmail(EMAIL);
+        user.setActivated(true);
+        user.setAuthorities(Collections.singleton(authority));
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findOneWithAuthoritiesByLogin(LOGIN)).thenAnswer(invocation -> Optional.of(user));
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase(anyString())).thenAnswer(invocation -> Optional.of(user));
+        cacheManager = new ConcurrentMapCacheManager(UserCache.USERS_CACHE, UserCache.USER_IDS_CACHE, UserCache.UNKNOWN_USERS_CACHE);
+        userCache = new UserCache(userRepository, cacheManager);
+    }
+
+    @Test
+    void testUserIsCachedOnceForBothLookups() {
+        userCache.findOneWithAuthoritiesByLogin(LOGIN);
+        userCache.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL);
+
+        User byLogin = userCache.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow();
+        User byEmail = userCache.findOneWithAuthoritiesByEmailIgnoreCase("Test-User@Example.com").orElseThrow();
+
+        assertThat(byLogin.getId()).isEqualTo(1L);
+        assertThat(byEmail.getLogin()).isEqualTo(LOGIN);
+        assertThat(byEmail.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+        assertThat((Map<?, ?>) cacheManager.getCache(UserCache.USERS_CACHE).getNativeCache()).hasSize(1);
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin(LOGIN);
+        verify(userRepository, times(1)).findOneWithAuthoritiesByEmailIgnoreCase(anyString());
+    }
+
+    @Test
+    void testEvictionInvalidatesBothLookups() {
+        userCache.findOneWithAuthoritiesByLogin(LOGIN);
+        userCache.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL);
+
+        userCache.evict(user);
+        userCache.findOneWithAuthoritiesByLogin(LOGIN);
+        userCache.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL);
+
+        verify(userRepository, times(2)).findOneWithAuthoritiesByLogin(LOGIN);
+        verify(userRepository, times(2)).findOneWithAuthoritiesByEmailIgnoreCase(anyString());
+    }
+
+    @Test
+    void testStaleIndexEntryIsAMiss() {
+        userCache.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL);
+
+        // The email changed, and the user was cached again by login
+        userCache.evict(user);
+        user.setEmail("other@example.com");
+        userCache.findOneWithAuthoritiesByLogin(LOGIN);
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL)).thenReturn(Optional.empty());
+
+        assertThat(userCache.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL)).isEmpty();
+    }
+
+    @Test
+    void testUnknownUserIsNotLookedUpAgain() {
+        when(userRepository.findOneWithAuthoritiesByLogin("unknown")).thenReturn(Optional.empty());
+
+        assertThat(userCache.findOneWithAuthoritiesByLogin("unknown")).isEmpty();
+        assertThat(userCache.findOneWithAuthoritiesByLogin("unknown")).isEmpty();
+
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin("unknown");
+    }
+
+    @Test
+    void testEvictedUserIsNoLongerUnknown() {
+        when(userRepository.findOneWithAuthoritiesByLogin(LOGIN)).thenReturn(Optional.empty());
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL)).thenReturn(Optional.empty());
+        assertThat(userCache.findOneWithAuthoritiesByLogin(LOGIN)).isEmpty();
+        assertThat(userCache.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL)).isEmpty();
+
+        // The user is created
+        when(userRepository.findOneWithAuthoritiesByLogin(LOGIN)).thenReturn(Optional.of(user));
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL)).thenReturn(Optional.of(user));
+        userCache.evict(user);
+
+        assertThat(userCache.findOneWithAuthoritiesByLogin(LOGIN)).isPresent();
+        assertThat(userCache.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL)).isPresent();
+    }
+
+    @Test
+    void testCachedUsersAreCopies() {
+        userCache.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow().setFirstName("changed");
+
+        assertThat(userCache.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow().getFirstName()).isNull();
+    }
+}
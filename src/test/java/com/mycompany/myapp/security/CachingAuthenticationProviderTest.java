@@ -0,0 +1,76 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Test class for {@link CachingAuthenticationProvider}.
+ */
+class CachingAuthenticationProviderTest {
+    private static final String LOGIN = "test-user";
+    private static final String PASSWORD = "test-password";
+
+    private UserDetailsService userDetailsService;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private CachingAuthenticationProvider authenticationProvider;
+
+    @BeforeEach
+    public void setup() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(LOGIN))
+            .thenAnswer(
+                invocation ->
+                    new User(LOGIN, passwordHash, Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER)))
+            );
+        cacheManager = new ConcurrentMapCacheManager(CachingAuthenticationProvider.VERIFIED_CREDENTIALS_CACHE);
+        authenticationProvider = new CachingAuthenticationProvider(userDetailsService, passwordEncoder, cacheManager);
+    }
+
+    @Test
+    void testVerifiedCredentialsAreCached() {
+        Authentication first = authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(LOGIN, PASSWORD));
+        Authentication second = authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(LOGIN, PASSWORD));
+
+        assertThat(second.getName()).isEqualTo(LOGIN);
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getAuthorities()).isEqualTo(first.getAuthorities());
+        verify(userDetailsService, times(1)).loadUserByUsername(LOGIN);
+    }
+
+    @Test
+    void testWrongPasswordIsNotAuthenticatedFromCache() {
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(LOGIN, PASSWORD));
+
+        assertThatExceptionOfType(BadCredentialsException.class)
+            .isThrownBy(() -> authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(LOGIN, "wrong-password")));
+        verify(userDetailsService, times(2)).loadUserByUsername(LOGIN);
+    }
+
+    @Test
+    void testEvictedCredentialsAreVerifiedAgain() {
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(LOGIN, PASSWORD));
+
+        cacheManager.getCache(CachingAuthenticationProvider.VERIFIED_CREDENTIALS_CACHE).evict(LOGIN);
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(LOGIN, PASSWORD));
+
+        verify(userDetailsService, times(2)).loadUserByUsername(LOGIN);
+    }
+}
@@ -0,0 +1,176 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Test class for {@link PasswordVerificationExecutor}.
+ */
+class PasswordVerificationExecutorTest {
+    private SimpleMeterRegistry registry;
+
+    private PasswordVerificationExecutor executor;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setPasswordVerificationThreads(1);
+        applicationProperties.getSecurity().setPasswordVerificationQueue(1);
+        applicationProperties.getSecurity().setPasswordVerificationRetryAfter(Duration.ofSeconds(3));
+        registry = new SimpleMeterRegistry();
+        executor = new PasswordVerificationExecutor(applicationProperties, new MockEnvironment(), registry);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        executor.destroy();
+    }
+
+    @Test
+    void testPasswordIsVerifiedOnThePool() {
+        PasswordEncoder passwordEncoder = PasswordVerificationExecutor.verifyingOnPool(new ThreadRecordingPasswordEncoder());
+
+        Authentication authentication = executor.authenticate(
+            authenticationManager(passwordEncoder),
+            new UsernamePasswordAuthenticationToken("user", "password")
+        );
+
+        assertThat(authentication.getName()).isEqualTo("user");
+        assertThat(ThreadRecordingPasswordEncoder.lastThread).startsWith("password-verification-");
+        assertThat(registry.get("authentication.password.queue.wait").timer().count()).isEqualTo(1);
+        assertThat(registry.get("authentication.password.verification").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPasswordIsVerifiedOnTheCallingThreadOutsideOfAuthenticate() {
+        PasswordEncoder passwordEncoder = PasswordVerificationExecutor.verifyingOnPool(new ThreadRecordingPasswordEncoder());
+
+        assertThat(passwordEncoder.matches("password", "password")).isTrue();
+
+        assertThat(ThreadRecordingPasswordEncoder.lastThread).isEqualTo(Thread.currentThread().getName());
+        assertThat(registry.get("authentication.password.verification").timer().count()).isZero();
+    }
+
+    @Test
+    void testAuthenticationExceptionIsRethrown() {
+        AuthenticationManager authenticationManager = authenticationManager(
+            PasswordVerificationExecutor.verifyingOnPool(new ThreadRecordingPasswordEncoder())
+        );
+
+        assertThatExceptionOfType(BadCredentialsException.class)
+            .isThrownBy(() -> executor.authenticate(authenticationManager, new UsernamePasswordAuthenticationToken("user", "wrong")));
+    }
+
+    @Test
+    void testAuthenticationIsRejectedWhenTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder passwordEncoder = PasswordVerificationExecutor.verifyingOnPool(
+            new ThreadRecordingPasswordEncoder() {
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    started.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.matches(rawPassword, encodedPassword);
+                }
+            }
+        );
+        AuthenticationManager authenticationManager = authenticationManager(passwordEncoder);
+        UsernamePasswordAuthenticationToken request = new UsernamePasswordAuthenticationToken("user", "password");
+        CompletableFuture<Authentication> running = CompletableFuture.supplyAsync(
+            () -> executor.authenticate(authenticationManager, request)
+        );
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Authentication> queued = CompletableFuture.supplyAsync(
+            () -> executor.authenticate(authenticationManager, request)
+        );
+        while (registry.get("authentication.password.queue").gauge().value() < 1) {
+            Thread.sleep(10);
+        }
+
+        assertThatExceptionOfType(PasswordVerificationRejectedException.class)
+            .isThrownBy(() -> executor.authenticate(authenticationManager, request))
+            .satisfies(e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(3)));
+        assertThat(registry.get("authentication.password.rejections").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(10, TimeUnit.SECONDS).getName()).isEqualTo("user");
+        assertThat(queued.get(10, TimeUnit.SECONDS).getName()).isEqualTo("user");
+    }
+
+    @Test
+    void testLoginsAreLimitedToAQuarterOfTheWorkers() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setPasswordVerificationThreads(4);
+        applicationProperties.getSecurity().setPasswordVerificationQueue(100);
+        MockEnvironment env = new MockEnvironment().withProperty("server.undertow.threads.worker", "32");
+
+        PasswordVerificationExecutor limited = new PasswordVerificationExecutor(applicationProperties, env, new SimpleMeterRegistry());
+        try {
+            assertThat(limited.getMaxLogins()).isEqualTo(8);
+        } finally {
+            limited.destroy();
+        }
+    }
+
+    @Test
+    void testQueueDefaultsToTheNumberOfThreads() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setPasswordVerificationThreads(2);
+        MockEnvironment env = new MockEnvironment().withProperty("server.undertow.threads.worker", "64");
+
+        PasswordVerificationExecutor defaults = new PasswordVerificationExecutor(applicationProperties, env, new SimpleMeterRegistry());
+        try {
+            assertThat(defaults.getMaxLogins()).isEqualTo(4);
+        } finally {
+            defaults.destroy();
+        }
+    }
+
+    /**
+     * Authenticates the users whose password is {@code password}.
+     */
+    private static AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder) {
+        return request -> {
+            if (!passwordEncoder.matches(request.getCredentials().toString(), "password")) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return new UsernamePasswordAuthenticationToken(request.getPrincipal(), null, null);
+        };
+    }
+
+    private static class ThreadRecordingPasswordEncoder implements PasswordEncoder {
+        private static volatile String lastThread;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            lastThread = Thread.currentThread().getName();
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.jwt.TokenProvider;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Test class for {@link RateLimitFilter}.
+ */
+class RateLimitFilterTest {
+    private ApplicationProperties.RateLimit properties;
+
+    private TokenProvider tokenProvider;
+
+    private CachingAuthenticationProvider authenticationProvider;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ApplicationProperties().getRateLimit();
+        properties.setCapacity(3);
+        properties.setRefillPerSecond(0.001);
+        ApplicationProperties.RateLimit.Route route = new ApplicationProperties.RateLimit.Route();
+        route.setPath("/api/authenticate");
+        route.setCapacity(1);
+        route.setRefillPerSecond(0.001);
+        properties.getRoutes().add(route);
+        ApplicationProperties.RateLimit.Route login = new ApplicationProperties.RateLimit.Route();
+        login.setPath("/api/login");
+        login.setCapacity(3);
+        login.setRefillPerSecond(0.001);
+        login.setLoginCapacity(2);
+        login.setLoginRefillPerSecond(0.001);
+        properties.getRoutes().add(login);
+        tokenProvider = mock(TokenProvider.class);
+        authenticationProvider = mock(CachingAuthenticationProvider.class);
+    }
+
+    @Test
+    void testRequestsAreLimitedPerIp() throws Exception {
+        RateLimitFilter filter = newFilter();
+
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            MockHttpServletResponse response = perform(filter, "/api/account", "10.0.0.1");
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+            assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isEqualTo("3");
+            assertThat(response.getHeader(RateLimitFilter.REMAINING_HEADER)).isEqualTo(String.valueOf(remaining));
+        }
+        MockHttpServletResponse rejected = perform(filter, "/api/account", "10.0.0.1");
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(rejected.getHeader(RateLimitFilter.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isBetween(990L, 1000L);
+
+        assertThat(perform(filter, "/api/account", "10.0.0.2").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testRequestsAreLimitedPerJwtUser() throws Exception {
+        RateLimitFilter filter = newFilter();
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "token",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        when(tokenProvider.getValidAuthentication("token")).thenReturn(authentication);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform(filter, "/api/account", "10.0.0." + i, "Bearer token").getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+        assertThat(perform(filter, "/api/account", "10.0.0.3", "Bearer token").getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(perform(filter, "/api/account", "10.0.0.3").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testRequestsAreLimitedPerBasicUserOnceVerified() throws Exception {
+        RateLimitFilter filter = newFilter();
+        when(authenticationProvider.isVerified(any())).thenReturn(true);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform(filter, "/api/orders/1", "10.0.0." + i, basic("Test-User")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+        assertThat(perform(filter, "/api/orders/1", "10.0.0.3", basic("test-user")).getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void testUnverifiedCredentialsAreLimitedPerIp() throws Exception {
+        RateLimitFilter filter = newFilter();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform(filter, "/api/account", "10.0.0.1", basic("user" + i)).getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+        assertThat(perform(filter, "/api/account", "10.0.0.1", "Bearer invalid").getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(perform(filter, "/api/account", "10.0.0.2", basic("user0")).getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testLimitsMustBeRefilled() {
+        properties.getRoutes().get(0).setRefillPerSecond(0);
+
+        assertThatIllegalArgumentException().isThrownBy(this::newFilter).withMessageContaining("/api/authenticate");
+
+        properties.getRoutes().get(0).setRefillPerSecond(1);
+        properties.setCapacity(0);
+
+        assertThatIllegalArgumentException().isThrownBy(this::newFilter);
+    }
+
+    @Test
+    void testRoutesHaveTheirOwnLimit() throws Exception {
+        RateLimitFilter filter = newFilter();
+
+        MockHttpServletResponse response = perform(filter, "/api/authenticate", "10.0.0.1");
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isEqualTo("1");
+        assertThat(perform(filter, "/api/authenticate", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(perform(filter, "/api/account", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testLoginsAreLimitedPerSubmittedLogin() throws Exception {
+        RateLimitFilter filter = newFilter();
+
+        MockHttpServletResponse response = performLogin(filter, "10.0.0.1", "Admin");
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(RateLimitFilter.REMAINING_HEADER)).isEqualTo("1");
+        assertThat(performLogin(filter, "10.0.0.2", "admin").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(performLogin(filter, "10.0.0.3", "admin").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        // The other logins of an IP still have their own bucket, within the limit of the IP
+        assertThat(performLogin(filter, "10.0.0.1", "user").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(performLogin(filter, "10.0.0.1", "other").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(performLogin(filter, "10.0.0.1", "another").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void testLoginBodyIsPassedOn() throws Exception {
+        RateLimitFilter filter = newFilter();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(loginRequest("10.0.0.1", "admin"), new MockHttpServletResponse(), chain);
+
+        assertThat(StreamUtils.copyToString(chain.getRequest().getInputStream(), StandardCharsets.UTF_8))
+            .isEqualTo(loginBody("admin"));
+        assertThat(chain.getRequest().getReader().readLine()).isEqualTo(loginBody("admin"));
+    }
+
+    @Test
+    void testBucketsAreBounded() throws Exception {
+        properties.setMaxKeys(10);
+        RateLimitFilter filter = newFilter();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(perform(filter, "/api/account", "10.0.1." + i).getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+        // The buckets evicted to make room are forgotten, and start full again
+        int remembered = 0;
+        for (int i = 0; i < 100; i++) {
+            if ("1".equals(perform(filter, "/api/account", "10.0.1." + i).getHeader(RateLimitFilter.REMAINING_HEADER))) {
+                remembered++;
+            }
+        }
+        assertThat(remembered).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void testDisabledFilterDoesNotLimit() throws Exception {
+        properties.setEnabled(false);
+        RateLimitFilter filter = newFilter();
+
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse response = perform(filter, "/api/authenticate", "10.0.0.1");
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+            assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isNull();
+        }
+    }
+
+    private RateLimitFilter newFilter() {
+        return new RateLimitFilter(properties, tokenProvider, authenticationProvider);
+    }
+
+    private static String basic(String login) {
+        return "Basic " + Base64.getEncoder().encodeToString((login + ":password").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockHttpServletResponse performLogin(RateLimitFilter filter, String remoteAddress, String username) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(loginRequest(remoteAddress, username), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest loginRequest(String remoteAddress, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/login");
+        request.setServletPath("/api/login");
+        request.setRemoteAddr(remoteAddress);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(loginBody(username).getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String loginBody(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"password\"}";
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String uri, String remoteAddress) throws Exception {
+        return perform(filter, uri, remoteAddress, null);
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String uri, String remoteAddress, String authorization)
+        throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setServletPath(uri);
+        request.setRemoteAddr(remoteAddress);
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,100 @@
+package com.mycompany.myapp.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link RevokedTokens}.
+ */
+class RevokedTokensTest {
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private RevokedTokens revokedTokens;
+
+    @BeforeEach
+    public void setup() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setRevokedTokenCapacity(10);
+        revokedTokens = new RevokedTokens(revokedTokenRepository, applicationProperties);
+    }
+
+    @Test
+    void testRevokedTokensAreStoredAndRejected() {
+        revokedTokens.revoke(digest("token"), "user", Instant.now().plus(1, ChronoUnit.HOURS));
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertThat(revokedTokens.isRevoked(digest("token"))).isTrue();
+        assertThat(revokedTokens.isRevoked(digest("other"))).isFalse();
+    }
+
+    @Test
+    void testTokensRevokedByOtherInstancesAreLoaded() {
+        when(revokedTokenRepository.findAllByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any()))
+            .thenReturn(
+                Collections.singletonList(
+                    new RevokedToken()
+                        .digest(digest("token"))
+                        .login("user")
+                        .expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                        .revokedAt(Instant.now())
+                )
+            );
+
+        revokedTokens.refresh();
+
+        assertThat(revokedTokens.isRevoked(digest("token"))).isTrue();
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void testFilterGrowsBeyondItsCapacity() {
+        for (int i = 0; i < 100; i++) {
+            revokedTokens.revoke(digest("token" + i), "user", Instant.now().plus(1, ChronoUnit.HOURS));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(revokedTokens.isRevoked(digest("token" + i))).isTrue();
+        }
+        long falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (revokedTokens.isRevoked(digest("other" + i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isZero();
+    }
+
+    @Test
+    void testExpiredRevocationsAreRemoved() {
+        revokedTokens.revoke(digest("expired"), "user", Instant.now().minus(1, ChronoUnit.MINUTES));
+        revokedTokens.revoke(digest("token"), "user", Instant.now().plus(1, ChronoUnit.HOURS));
+
+        revokedTokens.removeExpired();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertThat(revokedTokens.isRevoked(digest("expired"))).isFalse();
+        assertThat(revokedTokens.isRevoked(digest("token"))).isTrue();
+    }
+
+    private static String digest(String token) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
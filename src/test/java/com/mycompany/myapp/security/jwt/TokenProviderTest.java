@@ -1,7 +1,14 @@
 package com.mycompany.myapp.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
-
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.Jwts;
@@ -12,6 +19,7 @@ import java.security.Key;
 import java.util.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -20,17 +28,25 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 class TokenProviderTest {
     private static final long ONE_MINUTE = 60000;
+    private static final String BASE64_SECRET =
+        "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
 
     private Key key;
+    private RevokedTokenRepository revokedTokenRepository;
     private TokenProvider tokenProvider;
 
     @BeforeEach
     public void setup() {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
-        String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
-        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
-        tokenProvider = new TokenProvider(jHipsterProperties);
-        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        tokenProvider =
+            new TokenProvider(
+                jHipsterProperties,
+                new ApplicationProperties(),
+                new RevokedTokens(revokedTokenRepository, new ApplicationProperties())
+            );
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(BASE64_SECRET));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
@@ -81,6 +97,131 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testVerifiedTokenIsNotParsedAgain() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication authentication = tokenProvider.getValidAuthentication(token);
+
+        assertThat(authentication.getName()).isEqualTo("anonymous");
+        assertThat(authentication.getCredentials()).isEqualTo(token);
+        assertThat(tokenProvider.getValidAuthentication(token)).isSameAs(authentication);
+    }
+
+    @Test
+    void testAuthoritiesAreInterned() {
+        Authentication first = tokenProvider.getValidAuthentication(tokenProvider.createToken(createAuthentication(), false));
+        Authentication second = tokenProvider.getValidAuthentication(tokenProvider.createToken(createAuthentication(), true));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getAuthorities().iterator().next()).isSameAs(first.getAuthorities().iterator().next());
+    }
+
+    @Test
+    void testCachedAuthenticationIsImmutable() {
+        Authentication authentication = tokenProvider.getValidAuthentication(tokenProvider.createToken(createAuthentication(), false));
+
+        assertThatThrownBy(() -> authentication.setAuthenticated(true)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ((AbstractAuthenticationToken) authentication).setDetails(null))
+            .isInstanceOf(UnsupportedOperationException.class);
+        ((AbstractAuthenticationToken) authentication).eraseCredentials();
+        assertThat(authentication.getCredentials()).isNotNull();
+        assertThat(authentication.isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void testUnauthenticatedAuthenticationIsNotCached() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        Authentication authentication = tokenProvider.getValidAuthentication(token);
+
+        authentication.setAuthenticated(false);
+
+        Authentication next = tokenProvider.getValidAuthentication(token);
+        assertThat(next).isNotSameAs(authentication);
+        assertThat(next.isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void testReturnNullWhenJWTisExpired() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.getValidAuthentication(token)).isNull();
+    }
+
+    @Test
+    void testReturnNullWhenJWThasInvalidSignature() {
+        assertThat(tokenProvider.getValidAuthentication(createTokenWithDifferentSignature())).isNull();
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        String other = tokenProvider.createToken(createAuthentication(), true);
+        assertThat(tokenProvider.getValidAuthentication(token)).isNotNull();
+
+        assertThat(tokenProvider.revokeToken(token)).isTrue();
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertThat(tokenProvider.getValidAuthentication(token)).isNull();
+        assertThat(tokenProvider.getValidAuthentication(other)).isNotNull();
+    }
+
+    @Test
+    void testInvalidTokenIsNotRevoked() {
+        assertThat(tokenProvider.revokeToken(createTokenWithDifferentSignature())).isFalse();
+    }
+
+    @Test
+    void testProfileClaimsAreTheAuthenticationDetails() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setProfileClaims(true);
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        TokenProvider profileTokenProvider = new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            new RevokedTokens(revokedTokenRepository, applicationProperties)
+        );
+
+        String token = profileTokenProvider.createToken(createAuthentication(), false, Collections.singletonMap("firstName", "John"));
+
+        assertThat((Map<?, ?>) profileTokenProvider.getValidAuthentication(token).getDetails()).containsEntry("firstName", "John");
+    }
+
+    @Test
+    void testProfileClaimsAreDisabledByDefault() {
+        String token = tokenProvider.createToken(createAuthentication(), false, Collections.singletonMap("firstName", "John"));
+
+        assertThat(tokenProvider.getValidAuthentication(token).getDetails()).isNull();
+    }
+
+    @Test
+    void testTokenCacheIsBounded() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setTokenCacheSize(10);
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        TokenProvider boundedTokenProvider = new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            new RevokedTokens(revokedTokenRepository, applicationProperties)
+        );
+
+        for (int i = 0; i < 50; i++) {
+            Authentication authentication = new UsernamePasswordAuthenticationToken(
+                "user" + i,
+                "",
+                createAuthentication().getAuthorities()
+            );
+            String token = boundedTokenProvider.createToken(authentication, false);
+            assertThat(boundedTokenProvider.getValidAuthentication(token).getName()).isEqualTo("user" + i);
+        }
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(boundedTokenProvider, "verifiedTokens")).hasSizeLessThanOrEqualTo(10);
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
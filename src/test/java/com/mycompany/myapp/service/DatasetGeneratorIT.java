@@ -0,0 +1,140 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.RestApp;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link DatasetGenerator}.
+ * <p>
+ * The generator commits its rows, so they are deleted after each test.
+ */
+@SpringBootTest(classes = RestApp.class)
+class DatasetGeneratorIT {
+    private static final String SELECT_ORDERS = "select id, product, cost, customer_id from jhi_order where id >= ? order by id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private ApplicationProperties applicationProperties;
+
+    private long firstCustomerId;
+
+    private long firstOrderId;
+
+    @BeforeEach
+    public void init() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getDatagen().setCustomers(20);
+        applicationProperties.getDatagen().setOrders(1500);
+        applicationProperties.getDatagen().setBatchSize(100);
+        firstCustomerId = nextId("customer");
+        firstOrderId = nextId("jhi_order");
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+                status -> {
+                    jdbcTemplate.update("delete from jhi_order where id >= ?", firstOrderId);
+                    jdbcTemplate.update("delete from customer where id >= ?", firstCustomerId);
+                }
+            );
+    }
+
+    @Test
+    void assertThatDatasetIsGenerated() {
+        newDatasetGenerator().generate();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from customer where id >= ?", Long.class, firstCustomerId))
+            .isEqualTo(20L);
+        List<Map<String, Object>> orders = jdbcTemplate.queryForList(SELECT_ORDERS, firstOrderId);
+        assertThat(orders).hasSize(1500);
+        assertThat(orders).allSatisfy(order -> assertThat((String) order.get("product")).isNotBlank());
+        // Inserted without Hibernate, but indexed
+        Map<String, Object> first = orders.get(0);
+        assertThat(searchService.searchOrderIds("\"" + first.get("product") + "\"", PageRequest.of(0, 2000)).getContent())
+            .contains(((Number) first.get("id")).longValue());
+
+        List<Long> ordersPerCustomer = jdbcTemplate.queryForList(
+            "select count(*) from jhi_order where id >= ? group by customer_id order by count(*) desc",
+            Long.class,
+            firstOrderId
+        );
+        // With an exponent of 1 and 20 customers, the first one has about 28% of the orders
+        assertThat(ordersPerCustomer.get(0)).isGreaterThan(300L);
+        assertThat(ordersPerCustomer.get(0)).isGreaterThan(5 * ordersPerCustomer.get(ordersPerCustomer.size() - 1));
+    }
+
+    @Test
+    void assertThatDatasetIsGeneratedInChunks() {
+        // 6 chunks of 250 orders, each inserted in batches of 100, 100 and 50 orders
+        applicationProperties.getDatagen().setChunkSize(250);
+        applicationProperties.getDatagen().setWorkers(3);
+        newDatasetGenerator().generate();
+
+        List<Long> ids = jdbcTemplate.queryForList("select id from jhi_order where id >= ? order by id", Long.class, firstOrderId);
+        assertThat(ids).hasSize(1500);
+        assertThat(ids.get(ids.size() - 1)).isEqualTo(firstOrderId + 1499);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from customer where id >= ?", Long.class, firstCustomerId))
+            .isEqualTo(20L);
+    }
+
+    @Test
+    void assertThatOrdersWithoutCustomersAreRejected() {
+        applicationProperties.getDatagen().setCustomers(0);
+
+        assertThatThrownBy(() -> newDatasetGenerator().generate())
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from jhi_order where id >= ?", Long.class, firstOrderId)).isZero();
+    }
+
+    @Test
+    void assertThatDatasetDependsOnlyOnSeed() {
+        // Several chunks, generated by one worker and then by several ones
+        applicationProperties.getDatagen().setChunkSize(200);
+        applicationProperties.getDatagen().setWorkers(1);
+        newDatasetGenerator().generate();
+        List<Map<String, Object>> first = jdbcTemplate.queryForList(SELECT_ORDERS, firstOrderId);
+        cleanUp();
+
+        applicationProperties.getDatagen().setWorkers(3);
+        newDatasetGenerator().generate();
+        List<Map<String, Object>> second = jdbcTemplate.queryForList(SELECT_ORDERS, firstOrderId);
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    private DatasetGenerator newDatasetGenerator() {
+        return new DatasetGenerator(jdbcTemplate, transactionManager, applicationProperties, searchService, eventPublisher);
+    }
+
+    private long nextId(String table) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        return maxId != null ? maxId + 1 : 1;
+    }
+}
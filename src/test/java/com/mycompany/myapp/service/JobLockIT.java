@@ -0,0 +1,75 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.RestApp;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link JobLock}, with one instance of it per application instance.
+ */
+@SpringBootTest(classes = RestApp.class)
+class JobLockIT {
+    private static final String LOCK = "testLock";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JobLock firstInstance;
+
+    private JobLock secondInstance;
+
+    @BeforeEach
+    public void init() {
+        firstInstance = new JobLock(jdbcTemplate, transactionManager);
+        secondInstance = new JobLock(jdbcTemplate, transactionManager);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager)
+        .executeWithoutResult(status -> jdbcTemplate.update("delete from jhi_job_lock where name = ?", LOCK));
+    }
+
+    @Test
+    void assertThatLockIsHeldByOneInstance() {
+        assertThat(firstInstance.tryLock(LOCK, Duration.ofMinutes(1))).isTrue();
+        assertThat(secondInstance.tryLock(LOCK, Duration.ofMinutes(1))).isFalse();
+        // Renewed by its holder
+        assertThat(firstInstance.tryLock(LOCK, Duration.ofMinutes(1))).isTrue();
+
+        firstInstance.unlock(LOCK);
+
+        assertThat(secondInstance.tryLock(LOCK, Duration.ofMinutes(1))).isTrue();
+        assertThat(firstInstance.tryLock(LOCK, Duration.ofMinutes(1))).isFalse();
+    }
+
+    @Test
+    void assertThatExpiredLockIsTakenOver() throws InterruptedException {
+        assertThat(firstInstance.tryLock(LOCK, Duration.ofMillis(10))).isTrue();
+        Thread.sleep(20);
+
+        assertThat(secondInstance.tryLock(LOCK, Duration.ofMinutes(1))).isTrue();
+        assertThat(firstInstance.tryLock(LOCK, Duration.ofMinutes(1))).isFalse();
+    }
+
+    @Test
+    void assertThatUnlockKeepsTheLockOfAnotherInstance() {
+        assertThat(firstInstance.tryLock(LOCK, Duration.ofMinutes(1))).isTrue();
+
+        secondInstance.unlock(LOCK);
+
+        assertThat(secondInstance.tryLock(LOCK, Duration.ofMinutes(1))).isFalse();
+    }
+}
@@ -0,0 +1,269 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+/**
+ * Test class for {@link MailDispatcher}, against an in-process SMTP server.
+ */
+class MailDispatcherTest {
+    private SmtpStandIn smtpServer;
+
+    private JavaMailSenderImpl mailSender;
+
+    private ApplicationProperties applicationProperties;
+
+    private SimpleMeterRegistry registry;
+
+    private MailDispatcher mailDispatcher;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        smtpServer = new SmtpStandIn();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        mailSender.setPort(smtpServer.getPort());
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMail().setConnections(1);
+        applicationProperties.getMail().setBatchSize(10);
+        applicationProperties.getMail().setRetryBackoff(Duration.ofMillis(10));
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void cleanUp() throws Exception {
+        if (mailDispatcher != null) {
+            mailDispatcher.stop();
+        }
+        smtpServer.close();
+    }
+
+    @Test
+    void testEmailsAreSentOverOneConnection() throws Exception {
+        mailDispatcher = createMailDispatcher();
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(mailDispatcher.dispatch(createMessage("user" + i + "@example.com"))).isTrue();
+        }
+
+        awaitUntil(() -> smtpServer.messages.size() == 25);
+        assertThat(smtpServer.connections.get()).isEqualTo(1);
+        assertThat(registry.get("mail.connections").counter().count()).isEqualTo(1);
+        assertThat(registry.get("mail.sent").counter().count()).isEqualTo(25);
+        assertThat(registry.get("mail.queue").gauge().value()).isZero();
+    }
+
+    @Test
+    void testFailedEmailIsRetried() throws Exception {
+        smtpServer.dataReplies.add("451 4.3.0 Try again later");
+        mailDispatcher = createMailDispatcher();
+
+        mailDispatcher.dispatch(createMessage("john.doe@example.com"));
+
+        awaitUntil(() -> smtpServer.messages.size() == 1);
+        assertThat(registry.get("mail.retries").counter().count()).isEqualTo(1);
+        assertThat(registry.get("mail.connections").counter().count()).isEqualTo(2);
+        assertThat(registry.get("mail.failures").counter().count()).isZero();
+    }
+
+    @Test
+    void testRejectedEmailIsNotRetried() throws Exception {
+        smtpServer.dataReplies.add("550 5.7.1 Rejected");
+        mailDispatcher = createMailDispatcher();
+
+        mailDispatcher.dispatch(createMessage("john.doe@example.com"));
+
+        awaitUntil(() -> registry.get("mail.failures").counter().count() == 1);
+        assertThat(registry.get("mail.retries").counter().count()).isZero();
+        assertThat(smtpServer.messages).isEmpty();
+    }
+
+    @Test
+    void testEmailsAreDroppedWhenTheQueueIsFull() throws Exception {
+        applicationProperties.getMail().setQueueCapacity(1);
+        smtpServer.greeting = new CountDownLatch(1);
+        mailDispatcher = createMailDispatcher();
+
+        // The first email is being sent, waiting for the server, the second one is queued
+        assertThat(mailDispatcher.dispatch(createMessage("user0@example.com"))).isTrue();
+        awaitUntil(() -> smtpServer.connections.get() == 1);
+        assertThat(mailDispatcher.dispatch(createMessage("user1@example.com"))).isTrue();
+
+        assertThat(mailDispatcher.dispatch(createMessage("user2@example.com"))).isFalse();
+        assertThat(registry.get("mail.rejections").counter().count()).isEqualTo(1);
+
+        smtpServer.greeting.countDown();
+        awaitUntil(() -> smtpServer.messages.size() == 2);
+    }
+
+    @Test
+    void testQueuedEmailsAreSentOnStop() throws Exception {
+        mailDispatcher = new MailDispatcher(mailSender, applicationProperties, registry);
+
+        // Queued until the dispatcher is started
+        for (int i = 0; i < 3; i++) {
+            assertThat(mailDispatcher.dispatch(createMessage("user" + i + "@example.com"))).isTrue();
+        }
+        assertThat(registry.get("mail.queue").gauge().value()).isEqualTo(3);
+        assertThat(mailDispatcher.isRunning()).isFalse();
+
+        mailDispatcher.start();
+        mailDispatcher.stop();
+
+        assertThat(smtpServer.messages).hasSize(3);
+        assertThat(mailDispatcher.isRunning()).isFalse();
+        assertThat(mailDispatcher.dispatch(createMessage("user3@example.com"))).isFalse();
+        assertThat(registry.get("mail.rejections").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testUnsentEmailsAreFailuresAfterTheShutdownTimeout() throws Exception {
+        applicationProperties.getMail().setShutdownTimeout(Duration.ofMillis(100));
+        smtpServer.greeting = new CountDownLatch(1);
+        mailDispatcher = createMailDispatcher();
+
+        // The first email is being sent, waiting for the server, the second one is queued
+        mailDispatcher.dispatch(createMessage("user0@example.com"));
+        awaitUntil(() -> smtpServer.connections.get() == 1);
+        mailDispatcher.dispatch(createMessage("user1@example.com"));
+
+        mailDispatcher.stop();
+
+        assertThat(registry.get("mail.queue").gauge().value()).isZero();
+        assertThat(registry.get("mail.failures").counter().count()).isEqualTo(1);
+        smtpServer.greeting.countDown();
+    }
+
+    private MailDispatcher createMailDispatcher() {
+        MailDispatcher mailDispatcher = new MailDispatcher(mailSender, applicationProperties, registry);
+        mailDispatcher.start();
+        return mailDispatcher;
+    }
+
+    private MimeMessage createMessage(String to) throws Exception {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, false, StandardCharsets.UTF_8.name());
+        message.setTo(to);
+        message.setFrom("test@localhost");
+        message.setSubject("testSubject");
+        message.setText("testContent");
+        return mimeMessage;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Timed out").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Answers just enough of SMTP for JavaMail, keeping the messages it receives.
+     */
+    private static final class SmtpStandIn implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final Queue<String> dataReplies = new ConcurrentLinkedQueue<>();
+        private volatile CountDownLatch greeting = new CountDownLatch(0);
+
+        private SmtpStandIn() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            executor.execute(this::accept);
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept() {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    executor.execute(() -> converse(socket));
+                }
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+
+        private void converse(Socket socket) {
+            try (
+                Socket client = socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8)
+            ) {
+                greeting.await(10, TimeUnit.SECONDS);
+                reply(out, "220 localhost");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.toUpperCase().startsWith("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            data.append(line).append('\n');
+                        }
+                        String failure = dataReplies.poll();
+                        if (failure == null) {
+                            messages.add(data.toString());
+                            reply(out, "250 OK");
+                        } else {
+                            reply(out, failure);
+                        }
+                    } else if (line.toUpperCase().startsWith("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // Disconnected
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void reply(Writer out, String reply) throws IOException {
+            out.write(reply + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.*;
+
+import com.mycompany.myapp.RestApp;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.ArchivedOrder;
+import com.mycompany.myapp.repository.OrderArchive;
+import com.mycompany.myapp.repository.OrderRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link OrderArchiveService}.
+ * <p>
+ * The archival commits its transactions, so the orders and the archive segments are deleted after each test.
+ */
+@SpringBootTest(classes = RestApp.class)
+class OrderArchiveServiceIT {
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JobLock jobLock;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        for (int i = 0; i < 3; i++) {
+            orders.add(orderRepository.saveAndFlush(new Order().product("Archived Widget " + i).cost(10.0 + i)));
+        }
+        applicationProperties.getArchive().setEnabled(true);
+        applicationProperties.getArchive().setHotOrders(1);
+        applicationProperties.getArchive().setOrdersPerSegment(1);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        ApplicationProperties.Archive defaults = new ApplicationProperties().getArchive();
+        applicationProperties.getArchive().setEnabled(defaults.isEnabled());
+        applicationProperties.getArchive().setHotOrders(defaults.getHotOrders());
+        applicationProperties.getArchive().setOrdersPerSegment(defaults.getOrdersPerSegment());
+        new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+                status -> {
+                    jdbcTemplate.update("delete from jhi_order_archive_segment");
+                    jdbcTemplate.update("delete from jhi_job_lock");
+                }
+            );
+        orderArchiveService.refreshArchive();
+        orderArchive.deleteUncommitted(List.of());
+        orders.stream().map(Order::getId).filter(orderRepository::existsById).forEach(orderRepository::deleteById);
+    }
+
+    @Test
+    void assertThatColdOrdersAreArchived() {
+        orderArchiveService.archiveColdOrders();
+
+        assertThat(orderRepository.existsById(orders.get(0).getId())).isFalse();
+        assertThat(orderRepository.existsById(orders.get(1).getId())).isFalse();
+        assertThat(orderRepository.existsById(orders.get(2).getId())).isTrue();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from jhi_order_archive_segment", Long.class)).isEqualTo(2L);
+        assertThat(orderArchive.getMaxId()).isEqualTo(orders.get(1).getId());
+        assertThat(orderArchive.findById(orders.get(0).getId()))
+            .hasValueSatisfying(order -> assertThat(order.getProduct()).isEqualTo("Archived Widget 0"));
+    }
+
+    @Test
+    void assertThatOrdersArchivedByAnotherInstanceAreFound() {
+        OrderArchive otherArchive = new OrderArchive(applicationProperties);
+        OrderArchiveService otherInstance = new OrderArchiveService(
+            orderRepository,
+            otherArchive,
+            applicationProperties,
+            eventPublisher,
+            jobLock,
+            jdbcTemplate,
+            transactionManager,
+            entityManagerFactory
+        );
+        try {
+            orderArchiveService.archiveColdOrders();
+
+            assertThat(otherInstance.findArchived(orders.get(0).getId()))
+                .hasValueSatisfying(order -> assertThat(order.getProduct()).isEqualTo("Archived Widget 0"));
+            assertThat(otherInstance.findArchived(orders.get(2).getId())).isEmpty();
+        } finally {
+            otherArchive.close();
+        }
+    }
+
+    @Test
+    void assertThatOrdersUpdatedWhileArchivedAreKept() {
+        OrderRepository updatingRepository = mock(OrderRepository.class, delegatesTo(orderRepository));
+        doAnswer(
+                invocation -> {
+                    List<ArchivedOrder> archivable = orderRepository.findArchivable(
+                        invocation.getArgument(0),
+                        invocation.getArgument(1),
+                        invocation.<Pageable>getArgument(2)
+                    );
+                    // Another instance updates the order once it has been read
+                    Long id = archivable.get(0).getId();
+                    new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(
+                            status -> jdbcTemplate.update("update jhi_order set cost = 0, version = version + 1 where id = ?", id)
+                        );
+                    entityManagerFactory.getCache().evict(Order.class, id);
+                    return archivable;
+                }
+            )
+            .when(updatingRepository)
+            .findArchivable(any(), any(), any());
+
+        new OrderArchiveService(
+            updatingRepository,
+            orderArchive,
+            applicationProperties,
+            eventPublisher,
+            jobLock,
+            jdbcTemplate,
+            transactionManager,
+            entityManagerFactory
+        )
+        .archiveColdOrders();
+
+        assertThat(orders).allSatisfy(order -> assertThat(orderRepository.existsById(order.getId())).isTrue());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from jhi_order_archive_segment", Long.class)).isZero();
+        assertThat(orderArchive.count()).isZero();
+        assertThat(orderArchive.findById(orders.get(0).getId())).isEmpty();
+    }
+
+    @Test
+    void assertThatArchivalIsSkippedWhileAnotherInstanceHoldsTheLock() {
+        JobLock otherInstance = new JobLock(jdbcTemplate, transactionManager);
+        assertThat(otherInstance.tryLock(OrderArchiveService.LOCK, Duration.ofMinutes(1))).isTrue();
+
+        orderArchiveService.archiveColdOrders();
+
+        assertThat(orders).allSatisfy(order -> assertThat(orderRepository.existsById(order.getId())).isTrue());
+        assertThat(orderArchive.count()).isZero();
+    }
+}
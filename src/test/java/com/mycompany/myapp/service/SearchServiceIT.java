@@ -0,0 +1,101 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.RestApp;
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.management.SearchIndexEndpoint;
+import com.mycompany.myapp.repository.CustomerRepository;
+import com.mycompany.myapp.repository.OrderRepository;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link SearchService}.
+ * <p>
+ * The indexes are only updated when transactions commit, so the rows are committed and deleted after each test.
+ */
+@SpringBootTest(classes = RestApp.class)
+class SearchServiceIT {
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SearchIndexEndpoint searchIndexEndpoint;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Customer customer;
+
+    private Order order;
+
+    @BeforeEach
+    public void init() {
+        customer = customerRepository.saveAndFlush(new Customer().name("Quixotic Customer"));
+        order = orderRepository.saveAndFlush(new Order().product("Quixotic Widget").cost(10.0).customer(customer));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        orderRepository.deleteById(order.getId());
+        customerRepository.deleteById(customer.getId());
+    }
+
+    @Test
+    void assertThatWrittenRowsAreFound() {
+        assertThat(searchService.searchOrderIds("quixotic widget", FIRST_PAGE).getContent()).containsExactly(order.getId());
+        assertThat(searchService.searchCustomerIds("quixotic", FIRST_PAGE).getContent()).containsExactly(customer.getId());
+
+        order = orderRepository.saveAndFlush(orderRepository.findById(order.getId()).orElseThrow().product("Zealous Gadget"));
+
+        assertThat(searchService.searchOrderIds("zealous", FIRST_PAGE).getContent()).containsExactly(order.getId());
+        assertThat(searchService.searchOrderIds("widget", FIRST_PAGE).getContent()).doesNotContain(order.getId());
+    }
+
+    @Test
+    void assertThatReindexFindsRowsWrittenWithoutHibernate() throws InterruptedException {
+        new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+                status -> jdbcTemplate.update("update customer set name = ? where id = ?", "Zealous Customer", customer.getId())
+            );
+        assertThat(searchService.searchCustomerIds("zealous", FIRST_PAGE).getContent()).isEmpty();
+        // Archived orders are deleted without Hibernate, and are only left in the index
+        Long archivedId = orderRepository.saveAndFlush(new Order().product("Archived Trinket").cost(1.0)).getId();
+        new TransactionTemplate(transactionManager)
+        .executeWithoutResult(status -> jdbcTemplate.update("delete from jhi_order where id = ?", archivedId));
+
+        searchIndexEndpoint.reindex();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<Long> ids = searchService.searchCustomerIds("zealous", FIRST_PAGE).getContent();
+        while (ids.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            ids = searchService.searchCustomerIds("zealous", FIRST_PAGE).getContent();
+        }
+        assertThat(ids).containsExactly(customer.getId());
+        assertThat(searchService.searchOrderIds("quixotic widget", FIRST_PAGE).getContent()).containsExactly(order.getId());
+        assertThat(searchService.searchOrderIds("archived trinket", FIRST_PAGE).getContent()).containsExactly(archivedId);
+    }
+}
@@ -0,0 +1,163 @@
+package com.mycompany.myapp.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.RestApp;
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.CustomerRepository;
+import com.mycompany.myapp.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link OrderResponseCacheFilter}.
+ */
+@SpringBootTest(classes = RestApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class OrderResponseCacheFilterIT {
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc restOrderMockMvc;
+
+    private Order order;
+
+    @BeforeEach
+    public void initTest() {
+        order = new Order().product("AAAAAAAAAA").cost(1D);
+    }
+
+    @Test
+    @Transactional
+    void responseIsCachedUntilNextWrite() throws Exception {
+        order = orderRepository.saveAndFlush(order);
+        MvcResult first = restOrderMockMvc.perform(get("/api/orders/{id}", order.getId())).andExpect(status().isOk()).andReturn();
+
+        // Not seen by the filter
+        jdbcTemplate.update("update jhi_order set cost = 3 where id = ?", order.getId());
+        MvcResult second = restOrderMockMvc.perform(get("/api/orders/{id}", order.getId())).andExpect(status().isOk()).andReturn();
+        assertThat(second.getResponse().getContentAsByteArray()).isEqualTo(first.getResponse().getContentAsByteArray());
+        assertThat(second.getResponse().getContentType()).isEqualTo(first.getResponse().getContentType());
+
+        orderRepository.saveAndFlush(orderRepository.findById(order.getId()).get().cost(2D));
+        restOrderMockMvc
+            .perform(get("/api/orders/{id}", order.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cost").value(2D));
+    }
+
+    @Test
+    @Transactional
+    void responsesAreEvictedPerOrder() throws Exception {
+        order = orderRepository.saveAndFlush(order);
+        Order other = orderRepository.saveAndFlush(new Order().product("BBBBBBBBBB").cost(1D));
+        restOrderMockMvc.perform(get("/api/orders/{id}", order.getId())).andExpect(status().isOk());
+        restOrderMockMvc.perform(get("/api/orders/{id}", other.getId())).andExpect(status().isOk());
+
+        // Not seen by the filter
+        jdbcTemplate.update("update jhi_order set cost = 3 where id in (?, ?)", order.getId(), other.getId());
+        orderRepository.saveAndFlush(orderRepository.findById(order.getId()).get().product("CCCCCCCCCC"));
+
+        restOrderMockMvc.perform(get("/api/orders/{id}", order.getId())).andExpect(jsonPath("$.product").value("CCCCCCCCCC"));
+        restOrderMockMvc.perform(get("/api/orders/{id}", other.getId())).andExpect(jsonPath("$.cost").value(1D));
+    }
+
+    @Test
+    void responsesOfTheOrdersOfAWrittenCustomerAreEvicted() throws Exception {
+        // The writes are committed, so the order and the customer are deleted at the end of the test
+        Customer customer = customerRepository.saveAndFlush(new Customer().name("AAAAAAAAAA"));
+        order = orderRepository.saveAndFlush(order.customer(customer));
+        try {
+            restOrderMockMvc
+                .perform(get("/api/orders/{id}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customer.name").value("AAAAAAAAAA"));
+
+            customerRepository.saveAndFlush(customerRepository.findById(customer.getId()).get().name("BBBBBBBBBB"));
+
+            restOrderMockMvc
+                .perform(get("/api/orders/{id}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customer.name").value("BBBBBBBBBB"));
+        } finally {
+            orderRepository.deleteById(order.getId());
+            customerRepository.deleteById(customer.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void cachedResponsesHaveTheirHeaders() throws Exception {
+        order = orderRepository.saveAndFlush(order);
+        Thread.sleep(1000);
+        MvcResult first = restOrderMockMvc
+            .perform(get("/api/orders/{id}", order.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn();
+
+        restOrderMockMvc
+            .perform(get("/api/orders/{id}", order.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, first.getResponse().getHeader(HttpHeaders.ETAG)))
+            .andExpect(header().string(HttpHeaders.LAST_MODIFIED, first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)));
+    }
+
+    @Test
+    @Transactional
+    void responsesHaveValidators() throws Exception {
+        order = orderRepository.saveAndFlush(order);
+        // Last-Modified is only sent once the second of the last write is over
+        Thread.sleep(1000);
+        MvcResult result = restOrderMockMvc
+            .perform(get("/api/orders/{id}", order.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + order.getVersion() + "\""))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn();
+
+        restOrderMockMvc
+            .perform(
+                get("/api/orders/{id}", order.getId()).header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG))
+            )
+            .andExpect(status().isNotModified());
+        restOrderMockMvc
+            .perform(
+                get("/api/orders/{id}", order.getId())
+                    .header(HttpHeaders.IF_MODIFIED_SINCE, result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED))
+            )
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    void responsesAreCachedPerMediaType() throws Exception {
+        order = orderRepository.saveAndFlush(order);
+        restOrderMockMvc
+            .perform(get("/api/orders/{id}", order.getId()).header(HttpHeaders.ACCEPT, "application/json"))
+            .andExpect(content().contentTypeCompatibleWith("application/json"));
+        restOrderMockMvc
+            .perform(get("/api/orders/{id}", order.getId()).header(HttpHeaders.ACCEPT, "application/ohm+json"))
+            .andExpect(content().contentTypeCompatibleWith("application/ohm+json"));
+    }
+}
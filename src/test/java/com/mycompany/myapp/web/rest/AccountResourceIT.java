@@ -2,6 +2,7 @@ package com.mycompany.myapp.web.rest;
 
 import static com.mycompany.myapp.web.rest.AccountResourceIT.TEST_USER_LOGIN;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -24,6 +25,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -107,6 +111,63 @@ class AccountResourceIT {
             .andExpect(jsonPath("$.authorities").value(AuthoritiesConstants.ADMIN));
     }
 
+    @Test
+    @Transactional
+    void testGetAccountFromProfileClaims() throws Exception {
+        User user = createProfileUser("account-profile-claims");
+        UserDTO profile = new UserDTO();
+        profile.setFirstName("claimed");
+        profile.setLangKey("en");
+        profile.setActivated(true);
+        profile.setLastModifiedDate(user.getLastModifiedDate());
+
+        // The claims are current, so the profile comes from them rather than from the database
+        restAccountMockMvc
+            .perform(
+                get("/api/account")
+                    .with(authentication(profileClaimsAuthentication("account-profile-claims", profile)))
+                    .accept(MediaType.APPLICATION_JSON)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value("account-profile-claims"))
+            .andExpect(jsonPath("$.firstName").value("claimed"))
+            .andExpect(jsonPath("$.langKey").value("en"))
+            .andExpect(jsonPath("$.authorities").value(AuthoritiesConstants.USER));
+    }
+
+    @Test
+    @Transactional
+    void testGetAccountIgnoresProfileClaimsOfChangedUser() throws Exception {
+        User user = createProfileUser("account-changed-profile");
+        UserDTO profile = new UserDTO();
+        profile.setFirstName("claimed");
+        profile.setLastModifiedDate(user.getLastModifiedDate().minusSeconds(1));
+
+        restAccountMockMvc
+            .perform(
+                get("/api/account")
+                    .with(authentication(profileClaimsAuthentication("account-changed-profile", profile)))
+                    .accept(MediaType.APPLICATION_JSON)
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.firstName").value("changed"));
+    }
+
+    @Test
+    void testGetAccountIgnoresProfileClaimsOfUnknownUser() throws Exception {
+        UserDTO profile = new UserDTO();
+        profile.setFirstName("claimed");
+        profile.setLastModifiedDate(Instant.now());
+
+        restAccountMockMvc
+            .perform(
+                get("/api/account")
+                    .with(authentication(profileClaimsAuthentication("account-deleted-profile", profile)))
+                    .accept(MediaType.APPLICATION_PROBLEM_JSON)
+            )
+            .andExpect(status().isInternalServerError());
+    }
+
     @Test
     void testGetUnknownAccount() throws Exception {
         restAccountMockMvc
@@ -758,4 +819,23 @@ class AccountResourceIT {
             )
             .andExpect(status().isInternalServerError());
     }
+
+    private User createProfileUser(String login) {
+        UserDTO user = new UserDTO();
+        user.setLogin(login);
+        user.setFirstName("changed");
+        user.setEmail(login + "@example.com");
+        user.setLangKey("en");
+        return userService.createUser(user);
+    }
+
+    private static Authentication profileClaimsAuthentication(String login, UserDTO profile) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            login,
+            "token",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        authentication.setDetails(UserService.toProfileClaims(profile));
+        return authentication;
+    }
 }
@@ -0,0 +1,83 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Test class for the {@link ConditionalGet} utility class.
+ */
+class ConditionalGetTest {
+    private static final long SECOND = 1_600_000_000_000L;
+
+    @Test
+    void testHttpDateIsRoundedUp() {
+        assertThat(ConditionalGet.toHttpDate(SECOND)).isEqualTo(SECOND);
+        assertThat(ConditionalGet.toHttpDate(SECOND + 1)).isEqualTo(SECOND + 1000);
+        assertThat(ConditionalGet.toHttpDate(SECOND + 999)).isEqualTo(SECOND + 1000);
+    }
+
+    @Test
+    void testNoHttpDateUntilItsSecondIsOver() {
+        assertThat(ConditionalGet.toHttpDate(System.currentTimeMillis() + 1000)).isEqualTo(-1);
+    }
+
+    @Test
+    void testIfModifiedSinceIsComparedInSeconds() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, ConditionalGet.toHttpDate(SECOND + 1));
+
+        assertThat(ConditionalGet.isListNotModified(webRequest(request), SECOND + 1)).isTrue();
+        assertThat(ConditionalGet.isListNotModified(webRequest(request), SECOND + 500)).isTrue();
+        assertThat(ConditionalGet.isListNotModified(webRequest(request), SECOND + 1001)).isFalse();
+    }
+
+    @Test
+    void testListETagDependsOnTheQuery() {
+        String eTag = listETag(new MockHttpServletRequest("GET", "/api/orders"));
+
+        assertThat(eTag).startsWith("W/\"" + SECOND + "-");
+        assertThat(listETag(new MockHttpServletRequest("GET", "/api/orders"))).isEqualTo(eTag);
+        MockHttpServletRequest otherPage = new MockHttpServletRequest("GET", "/api/orders");
+        otherPage.addParameter("page", "1");
+        assertThat(listETag(otherPage)).isNotEqualTo(eTag);
+        MockHttpServletRequest otherSort = new MockHttpServletRequest("GET", "/api/orders");
+        otherSort.addParameter("sort", "cost,desc");
+        assertThat(listETag(otherSort)).isNotEqualTo(eTag).isNotEqualTo(listETag(otherPage));
+        assertThat(listETag(new MockHttpServletRequest("GET", "/api/customers/1/orders")))
+            .isNotEqualTo(listETag(new MockHttpServletRequest("GET", "/api/customers/2/orders")));
+    }
+
+    @Test
+    void testListMatchesItsETag() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addParameter("page", "1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, listETag(request));
+
+        assertThat(ConditionalGet.isListNotModified(webRequest(request), SECOND)).isTrue();
+    }
+
+    @Test
+    void testEntityMatchesTheETagOfItsWrites() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ConditionalGet.eTag(3L));
+
+        assertThat(ConditionalGet.eTag(3L)).isEqualTo("W/\"3\"");
+        assertThat(ConditionalGet.isEntityNotModified(webRequest(request), 3L, SECOND)).isTrue();
+        assertThat(ConditionalGet.isEntityNotModified(webRequest(request), 4L, SECOND)).isFalse();
+    }
+
+    private static String listETag(MockHttpServletRequest request) {
+        ServletWebRequest webRequest = webRequest(request);
+        ConditionalGet.isListNotModified(webRequest, SECOND);
+        return webRequest.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static ServletWebRequest webRequest(MockHttpServletRequest request) {
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
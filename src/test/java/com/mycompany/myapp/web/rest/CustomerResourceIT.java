@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.mycompany.myapp.RestApp;
 import com.mycompany.myapp.domain.Customer;
 import com.mycompany.myapp.repository.CustomerRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
 import java.util.List;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -132,6 +134,25 @@ class CustomerResourceIT {
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME));
     }
 
+    @Test
+    @Transactional
+    void getCustomerNotModified() throws Exception {
+        // Initialize the database
+        customerRepository.saveAndFlush(customer);
+
+        restCustomerMockMvc
+            .perform(get("/api/customers/{id}", customer.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + customer.getVersion() + "\""))
+            .andExpect(status().isNotModified());
+
+        customerRepository.saveAndFlush(customer.name(UPDATED_NAME));
+        restCustomerMockMvc
+            .perform(
+                get("/api/customers/{id}", customer.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + (customer.getVersion() - 1) + "\"")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+    }
+
     @Test
     @Transactional
     void getNonExistingCustomer() throws Exception {
@@ -166,6 +187,80 @@ class CustomerResourceIT {
         assertThat(testCustomer.getName()).isEqualTo(UPDATED_NAME);
     }
 
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void patchCustomer() throws Exception {
+        // Initialize the database
+        customerRepository.saveAndFlush(customer);
+        long version = customer.getVersion();
+
+        restCustomerMockMvc
+            .perform(
+                patch("/api/customers/{id}", customer.getId())
+                    .header(HttpHeaders.IF_MATCH, "W/\"" + version + "\"")
+                    .contentType(JsonMergePatch.MEDIA_TYPE)
+                    .content("{\"name\":\"" + UPDATED_NAME + "\"}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (version + 1) + "\""))
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME))
+            .andExpect(jsonPath("$.version").value((int) version + 1));
+
+        // Validate the Customer in the database
+        Customer testCustomer = customerRepository.findById(customer.getId()).get();
+        assertThat(testCustomer.getName()).isEqualTo(UPDATED_NAME);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void patchCustomerWithStaleVersion() throws Exception {
+        // Initialize the database
+        customerRepository.saveAndFlush(customer);
+
+        restCustomerMockMvc
+            .perform(
+                patch("/api/customers/{id}", customer.getId())
+                    .header(HttpHeaders.IF_MATCH, "W/\"" + (customer.getVersion() + 1) + "\"")
+                    .contentType(JsonMergePatch.MEDIA_TYPE)
+                    .content("{\"name\":\"" + UPDATED_NAME + "\"}")
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Validate the Customer in the database is unchanged
+        Customer testCustomer = customerRepository.findById(customer.getId()).get();
+        assertThat(testCustomer.getName()).isEqualTo(DEFAULT_NAME);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void patchCustomerWithControls() throws Exception {
+        // Initialize the database
+        customerRepository.saveAndFlush(customer);
+
+        restCustomerMockMvc
+            .perform(
+                patch("/api/customers/{id}", customer.getId())
+                    .accept("application/ohm+json")
+                    .contentType(JsonMergePatch.MEDIA_TYPE)
+                    .content("{\"name\":\"" + UPDATED_NAME + "\"}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.name").value(UPDATED_NAME))
+            .andExpect(jsonPath("$.controls.paths['/api/customers/" + customer.getId() + "'].patch").exists());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void patchNonExistingCustomer() throws Exception {
+        restCustomerMockMvc
+            .perform(patch("/api/customers/{id}", Long.MAX_VALUE).contentType(JsonMergePatch.MEDIA_TYPE).content("{}"))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void updateNonExistingCustomer() throws Exception {
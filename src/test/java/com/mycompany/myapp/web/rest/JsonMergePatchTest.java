@@ -0,0 +1,48 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link JsonMergePatch} utility class.
+ */
+class JsonMergePatchTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testReplaceAndAddMembers() throws Exception {
+        JsonNode result = JsonMergePatch.apply(json("{'a':'b','c':{'d':'e'}}"), json("{'a':'z','f':1}"));
+
+        assertThat(result).isEqualTo(json("{'a':'z','c':{'d':'e'},'f':1}"));
+    }
+
+    @Test
+    void testNullRemovesMember() throws Exception {
+        JsonNode result = JsonMergePatch.apply(json("{'a':'b','c':{'d':'e','f':'g'}}"), json("{'a':null,'c':{'f':null}}"));
+
+        assertThat(result).isEqualTo(json("{'c':{'d':'e'}}"));
+    }
+
+    @Test
+    void testNonObjectPatchReplacesTarget() throws Exception {
+        JsonNode result = JsonMergePatch.apply(json("{'a':['b']}"), json("{'a':['c','d']}"));
+
+        assertThat(result).isEqualTo(json("{'a':['c','d']}"));
+    }
+
+    @Test
+    void testTargetIsNotModified() throws Exception {
+        JsonNode target = json("{'a':'b'}");
+
+        JsonMergePatch.apply(target, json("{'a':'c'}"));
+
+        assertThat(target).isEqualTo(json("{'a':'b'}"));
+    }
+
+    private JsonNode json(String value) throws Exception {
+        return mapper.readTree(value.replace('\'', '"'));
+    }
+}
@@ -2,12 +2,17 @@ package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.mycompany.myapp.RestApp;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Customer;
 import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.OrderArchive;
 import com.mycompany.myapp.repository.OrderRepository;
+import com.mycompany.myapp.service.OrderArchiveService;
 import java.util.List;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,10 +20,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Integration tests for the {@link OrderResource} REST controller.
@@ -42,6 +51,21 @@ class OrderResourceIT {
     @Autowired
     private MockMvc restOrderMockMvc;
 
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private Order order;
 
     /**
@@ -122,6 +146,47 @@ class OrderResourceIT {
             .andExpect(jsonPath("$.[*].cost").value(hasItem(DEFAULT_COST.doubleValue())));
     }
 
+    @Test
+    @Transactional
+    void getAllOrdersNotModified() throws Exception {
+        // Initialize the database
+        orderRepository.saveAndFlush(order);
+
+        String eTag = restOrderMockMvc
+            .perform(get("/api/orders?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        restOrderMockMvc
+            .perform(get("/api/orders?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Any write changes the page
+        orderRepository.saveAndFlush(createUpdatedEntity(em));
+        restOrderMockMvc.perform(get("/api/orders?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void getCustomerOrders() throws Exception {
+        // Initialize the database
+        Customer customer = CustomerResourceIT.createEntity(em);
+        em.persist(customer);
+        order.setCustomer(customer);
+        orderRepository.saveAndFlush(order);
+
+        // Get the orders of the customer
+        restOrderMockMvc
+            .perform(get("/api/customers/{id}/orders?sort=id,desc", customer.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(order.getId().intValue())))
+            .andExpect(jsonPath("$.[*].product").value(hasItem(DEFAULT_PRODUCT)))
+            .andExpect(jsonPath("$.[*].cost").value(hasItem(DEFAULT_COST.doubleValue())))
+            .andExpect(jsonPath("$.[*].customerId").value(hasItem(customer.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getOrder() throws Exception {
@@ -138,6 +203,24 @@ class OrderResourceIT {
             .andExpect(jsonPath("$.cost").value(DEFAULT_COST.doubleValue()));
     }
 
+    @Test
+    @Transactional
+    void getOrderNotModified() throws Exception {
+        // Initialize the database
+        orderRepository.saveAndFlush(order);
+
+        restOrderMockMvc
+            .perform(get("/api/orders/{id}", order.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + order.getVersion() + "\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        orderRepository.saveAndFlush(order.cost(UPDATED_COST));
+        restOrderMockMvc
+            .perform(get("/api/orders/{id}", order.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + (order.getVersion() - 1) + "\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + order.getVersion() + "\""));
+    }
+
     @Test
     @Transactional
     void getNonExistingOrder() throws Exception {
@@ -145,6 +228,39 @@ class OrderResourceIT {
         restOrderMockMvc.perform(get("/api/orders/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    void getArchivedOrder() throws Exception {
+        // The archival commits, so the orders and the archive are deleted at the end of the test
+        Order archived = orderRepository.saveAndFlush(order);
+        Order hot = orderRepository.saveAndFlush(createUpdatedEntity(em));
+        ApplicationProperties.Archive archive = applicationProperties.getArchive();
+        archive.setEnabled(true);
+        archive.setHotOrders(1);
+        try {
+            orderArchiveService.archiveColdOrders();
+            assertThat(orderRepository.existsById(archived.getId())).isFalse();
+
+            restOrderMockMvc
+                .perform(get("/api/orders/{id}", archived.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(archived.getId().intValue()))
+                .andExpect(jsonPath("$.product").value(DEFAULT_PRODUCT));
+            restOrderMockMvc
+                .perform(get("/api/orders?sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItems(hot.getId().intValue(), archived.getId().intValue())));
+            restOrderMockMvc.perform(get("/api/orders?sort=cost,asc")).andExpect(status().isBadRequest());
+        } finally {
+            archive.setEnabled(false);
+            archive.setHotOrders(new ApplicationProperties().getArchive().getHotOrders());
+            new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> jdbcTemplate.update("delete from jhi_order_archive_segment"));
+            orderArchiveService.refreshArchive();
+            orderArchive.deleteUncommitted(List.of());
+            orderRepository.deleteById(hot.getId());
+        }
+    }
+
     @Test
     @Transactional
     void updateOrder() throws Exception {
@@ -171,6 +287,129 @@ class OrderResourceIT {
         assertThat(testOrder.getCost()).isEqualTo(UPDATED_COST);
     }
 
+    @Test
+    @Transactional
+    void updateOrderById() throws Exception {
+        // Initialize the database
+        orderRepository.saveAndFlush(order);
+        em.detach(order);
+
+        Order updatedOrder = new Order().product(UPDATED_PRODUCT).cost(UPDATED_COST);
+
+        restOrderMockMvc
+            .perform(
+                put("/api/orders/{id}", order.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + order.getVersion() + "\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedOrder))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (order.getVersion() + 1) + "\""));
+
+        // Validate the Order in the database: the product is kept server-side
+        Order testOrder = orderRepository.findById(order.getId()).get();
+        assertThat(testOrder.getProduct()).isEqualTo(DEFAULT_PRODUCT);
+        assertThat(testOrder.getCost()).isEqualTo(UPDATED_COST);
+        assertThat(testOrder.getVersion()).isEqualTo(order.getVersion() + 1);
+    }
+
+    @Test
+    @Transactional
+    void updateOrderByIdWithStaleVersion() throws Exception {
+        // Initialize the database
+        orderRepository.saveAndFlush(order);
+        em.detach(order);
+
+        Order updatedOrder = new Order().cost(UPDATED_COST);
+
+        restOrderMockMvc
+            .perform(
+                put("/api/orders/{id}", order.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + (order.getVersion() + 1) + "\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedOrder))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Validate the Order in the database is unchanged
+        Order testOrder = orderRepository.findById(order.getId()).get();
+        assertThat(testOrder.getCost()).isEqualTo(DEFAULT_COST);
+    }
+
+    @Test
+    @Transactional
+    void updateOrderByIdWithoutVersion() throws Exception {
+        // Initialize the database
+        orderRepository.saveAndFlush(order);
+        em.detach(order);
+
+        Order updatedOrder = new Order().cost(UPDATED_COST);
+
+        restOrderMockMvc
+            .perform(
+                put("/api/orders/{id}", order.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedOrder))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (order.getVersion() + 1) + "\""))
+            .andExpect(jsonPath("$.product").value(DEFAULT_PRODUCT))
+            .andExpect(jsonPath("$.cost").value(UPDATED_COST.doubleValue()))
+            .andExpect(jsonPath("$.version").value(order.getVersion().intValue() + 1));
+    }
+
+    @Test
+    @Transactional
+    void updateOrderByIdWithUnknownCustomer() throws Exception {
+        // Initialize the database
+        orderRepository.saveAndFlush(order);
+        em.detach(order);
+
+        Order updatedOrder = new Order().cost(UPDATED_COST).customer(new Customer().id(Long.MAX_VALUE));
+
+        restOrderMockMvc
+            .perform(
+                put("/api/orders/{id}", order.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedOrder))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void updateNonExistingOrderById() throws Exception {
+        restOrderMockMvc
+            .perform(
+                put("/api/orders/{id}", Long.MAX_VALUE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(order))
+            )
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void patchOrder() throws Exception {
+        // Initialize the database
+        orderRepository.saveAndFlush(order);
+
+        restOrderMockMvc
+            .perform(
+                patch("/api/orders/{id}", order.getId())
+                    .contentType(JsonMergePatch.MEDIA_TYPE)
+                    .content("{\"cost\":" + UPDATED_COST + ",\"product\":\"" + UPDATED_PRODUCT + "\"}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG));
+
+        // Validate the Order in the database: only the cost is patchable
+        Order testOrder = orderRepository.findById(order.getId()).get();
+        assertThat(testOrder.getProduct()).isEqualTo(DEFAULT_PRODUCT);
+        assertThat(testOrder.getCost()).isEqualTo(UPDATED_COST);
+    }
+
     @Test
     @Transactional
     void updateNonExistingOrder() throws Exception {
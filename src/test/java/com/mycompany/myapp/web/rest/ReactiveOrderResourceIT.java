@@ -0,0 +1,131 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.RestApp;
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Order;
+import com.mycompany.myapp.repository.CustomerRepository;
+import com.mycompany.myapp.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link ReactiveOrderResource} REST controller, against the R2DBC H2 driver.
+ * <p>
+ * R2DBC uses its own connections, so the test data is committed instead of being rolled back.
+ */
+@SpringBootTest(classes = RestApp.class)
+@ActiveProfiles(Constants.SPRING_PROFILE_REACTIVE)
+@AutoConfigureMockMvc
+@WithMockUser
+class ReactiveOrderResourceIT {
+    private static final String DEFAULT_PRODUCT = "AAAAAAAAAA";
+
+    private static final Double DEFAULT_COST = 1D;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MockMvc restOrderMockMvc;
+
+    private Customer customer;
+
+    private Order order;
+
+    @BeforeEach
+    public void initTest() {
+        customer = customerRepository.saveAndFlush(new Customer().name("AAAAAAAAAA"));
+        order = orderRepository.saveAndFlush(new Order().product(DEFAULT_PRODUCT).cost(DEFAULT_COST).customer(customer));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        orderRepository.deleteById(order.getId());
+        customerRepository.deleteById(customer.getId());
+    }
+
+    @Test
+    void getAllOrders() throws Exception {
+        MvcResult result = restOrderMockMvc
+            .perform(get("/api/reactive/orders?sort=id,desc"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restOrderMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(order.getId().intValue())))
+            .andExpect(jsonPath("$.[*].product").value(hasItem(DEFAULT_PRODUCT)))
+            .andExpect(jsonPath("$.[*].cost").value(hasItem(DEFAULT_COST.doubleValue())));
+    }
+
+    @Test
+    void getAllOrdersByUnknownProperty() throws Exception {
+        MvcResult result = restOrderMockMvc
+            .perform(get("/api/reactive/orders?sort=unknown,desc"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restOrderMockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCustomerOrders() throws Exception {
+        MvcResult result = restOrderMockMvc
+            .perform(get("/api/reactive/customers/{id}/orders?sort=id,desc", customer.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restOrderMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(order.getId().intValue())))
+            .andExpect(jsonPath("$.[*].customerId").value(hasItem(customer.getId().intValue())));
+    }
+
+    @Test
+    void getOrder() throws Exception {
+        MvcResult result = restOrderMockMvc
+            .perform(get("/api/reactive/orders/{id}", order.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restOrderMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(order.getId().intValue()))
+            .andExpect(jsonPath("$.product").value(DEFAULT_PRODUCT))
+            .andExpect(jsonPath("$.cost").value(DEFAULT_COST.doubleValue()))
+            .andExpect(jsonPath("$.customer.id").value(customer.getId().intValue()));
+    }
+
+    @Test
+    void getNonExistingOrder() throws Exception {
+        MvcResult result = restOrderMockMvc
+            .perform(get("/api/reactive/orders/{id}", Long.MAX_VALUE))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restOrderMockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+    }
+}
@@ -1,5 +1,7 @@
 package com.mycompany.myapp.web.rest.errors;
 
+import com.mycompany.myapp.security.PasswordVerificationRejectedException;
+import java.time.Duration;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.springframework.dao.ConcurrencyFailureException;
@@ -41,6 +43,11 @@ public class ExceptionTranslatorTestController {
         throw new TestResponseStatusException();
     }
 
+    @GetMapping("/password-verification-rejected")
+    public void passwordVerificationRejected() {
+        throw new PasswordVerificationRejectedException(Duration.ofSeconds(5));
+    }
+
     @GetMapping("/internal-server-error")
     public void internalServerError() {
         throw new RuntimeException();